@@ -0,0 +1,129 @@
+package base;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Saves the game in the background.
+ * The game thread only encodes the state (see GameStateCodec), which is a
+ * copy nothing else will change; a single writer thread puts it on disk.
+ * A burst of requests made while a save is being written is coalesced: only
+ * the most recent state is written next.
+ * Files are replaced atomically (temporary file, fsync, rename), so a crash
+ * during a save leaves the previous save intact.
+ */
+public class AutoSaver {
+
+    private final Path target;
+    private final ExecutorService writer;
+
+    // Most recent encoded state not yet picked up by the writer
+    private final AtomicReference<byte[]> pending = new AtomicReference<>();
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger writes = new AtomicInteger();
+    private volatile IOException lastError;
+
+    public AutoSaver(String filename) {
+        this.target = Paths.get(filename);
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Ask for the game to be saved. Returns once the state is encoded; the
+     * file is written later.
+     */
+    public void request(GameState state) {
+        requests.incrementAndGet();
+        byte[] data = GameStateCodec.encode(state);
+        // Only schedule a write if none is waiting: a waiting write will
+        // pick up this newer state instead of the one it was scheduled for
+        if (pending.getAndSet(data) == null) {
+            writer.execute(this::writePending);
+        }
+    }
+
+    private void writePending() {
+        byte[] data = pending.getAndSet(null);
+        if (data == null) {
+            return;
+        }
+        try {
+            writeAtomically(target, data);
+            writes.incrementAndGet();
+            lastError = null;
+        } catch (IOException e) {
+            lastError = e;
+            System.err.println("Autosave failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Wait for the requested saves to be written.
+     */
+    public void flush() {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // The empty task cannot fail
+        }
+    }
+
+    /**
+     * Write the requested saves, then stop the writer thread.
+     */
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Replace a file with new content, so that after a crash it holds either
+     * the old content or the new one, never a mix: the data goes to a
+     * temporary file next to it, is forced to disk, then renamed over it.
+     */
+    public static void writeAtomically(Path file, byte[] data) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public Path getTarget() { return target; }
+    public int getRequestCount() { return requests.get(); }
+    public int getWriteCount() { return writes.get(); }
+    public IOException getLastError() { return lastError; }
+}
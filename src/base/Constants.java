@@ -12,6 +12,11 @@ public final class Constants {
     public static final int BOARD_WIDTH = 30;
     public static final int BOARD_HEIGHT = 30;
     
+    // Level generation: a mob may spawn at the center of every open
+    // MOB_SPAWN_WINDOW x MOB_SPAWN_WINDOW area (no walls), with this probability
+    public static final int MOB_SPAWN_WINDOW = 3;
+    public static final double MOB_SPAWN_DENSITY = 1.0;
+    
     // Inventory
     public static final int MAX_INVENTORY_SIZE = 84;
     public static final int INVENTORY_GRID_COLS = 14;
@@ -73,6 +78,9 @@ public final class Constants {
     // File paths
     public static final String IMAGE_DIR = "./images/";
     public static final String DEFAULT_SAVE_FILE = "Sauvegarde.sav";
+    public static final String AUTOSAVE_FILE = "Autosave.sav";
+    public static final String JOURNAL_FILE = "Partie.journal";
+    public static final String SLOT_FILE = "Sauvegardes.slots";
     
     // Max values
     public static final int MAX_LEVEL = 30;
@@ -204,6 +204,16 @@ public class Equipment implements Serializable {
     public String getDescription() { return description; }
     public EquipmentType getType() { return type; }
     public Rarity getRarity() { return rarity; }
+    public int getDamage() { return damage; }
+    public int getPvRecovery() { return pvRecovery; }
+    public int getPv() { return pv; }
+    public int getDamageBonus() { return damageBonus; }
+    public int getStatBonus() { return statBonus; }
+    public int getResistance() { return resistance; }
+    public int getForce() { return force; }
+    public int getAgility() { return agility; }
+    public int getWisdom() { return wisdom; }
+    public int getXp() { return xp; }
     public boolean isEquipped() { return equipped; }
     
     /**
@@ -1,21 +1,28 @@
 package base;
 
-import java.util.Random;
-
 /**
  * Factory class for creating equipment items.
  */
 public class EquipmentFactory {
     
-    private static int nextId = 1;
-    private static final Random random = new Random();
+    // Used by the overloads without a context, outside level generation.
+    // Its ids come after the blocks reserved for every floor.
+    private static final GenerationContext sharedContext =
+            new GenerationContext(Constants.MAX_FLOORS, System.nanoTime());
     
     /**
      * Generate a random rarity based on hero level.
      * As level increases, common items become less likely and rare items more likely.
      */
-    public static Equipment.Rarity generateRarity(int heroLevel) {
-        int roll = random.nextInt(100);
+    public static synchronized Equipment.Rarity generateRarity(int heroLevel) {
+        return generateRarity(heroLevel, sharedContext);
+    }
+    
+    /**
+     * Generate a random rarity based on hero level, drawing from a generation context.
+     */
+    public static Equipment.Rarity generateRarity(int heroLevel, GenerationContext context) {
+        int roll = context.nextInt(100);
         
         // Scale factor: reduces common drop chance and increases rare drop chances
         // At level 0: no scaling
@@ -67,21 +74,30 @@ public class EquipmentFactory {
     /**
      * Create a weapon based on hero type and level.
      */
-    public static Equipment createWeapon(Hero.HeroType heroType, int heroLevel, Equipment.Rarity rarity) {
+    public static synchronized Equipment createWeapon(Hero.HeroType heroType, int heroLevel,
+                                                      Equipment.Rarity rarity) {
+        return createWeapon(heroType, heroLevel, rarity, sharedContext);
+    }
+    
+    /**
+     * Create a weapon, drawing the weapon kind and id from a generation context.
+     */
+    public static Equipment createWeapon(Hero.HeroType heroType, int heroLevel, Equipment.Rarity rarity,
+                                         GenerationContext context) {
         Equipment.EquipmentType weaponType;
         String name;
         
         switch (heroType) {
             case WARRIOR:
-                weaponType = getRandomWarriorWeapon();
+                weaponType = getRandomWarriorWeapon(context);
                 name = getWeaponName(weaponType, rarity);
                 break;
             case ARCHER:
-                weaponType = getRandomArcherWeapon();
+                weaponType = getRandomArcherWeapon(context);
                 name = getWeaponName(weaponType, rarity);
                 break;
             case MAGE:
-                weaponType = getRandomMageWeapon();
+                weaponType = getRandomMageWeapon(context);
                 name = getWeaponName(weaponType, rarity);
                 break;
             default:
@@ -92,7 +108,7 @@ public class EquipmentFactory {
         int baseDamage = 10 + (heroLevel * 2);
         int rarityMultiplier = getRarityMultiplier(rarity);
         
-        return new Equipment.Builder(nextId++, name, weaponType, rarity)
+        return new Equipment.Builder(context.nextItemId(), name, weaponType, rarity)
                 .damage(baseDamage * rarityMultiplier / 10)
                 .description("Une arme " + rarity.getDisplayName().toLowerCase())
                 .build();
@@ -101,12 +117,21 @@ public class EquipmentFactory {
     /**
      * Create armor based on level and rarity.
      */
-    public static Equipment createArmor(Equipment.EquipmentType armorType, int heroLevel, Equipment.Rarity rarity) {
+    public static synchronized Equipment createArmor(Equipment.EquipmentType armorType, int heroLevel,
+                                                     Equipment.Rarity rarity) {
+        return createArmor(armorType, heroLevel, rarity, sharedContext);
+    }
+    
+    /**
+     * Create armor, drawing its id from a generation context.
+     */
+    public static Equipment createArmor(Equipment.EquipmentType armorType, int heroLevel, Equipment.Rarity rarity,
+                                        GenerationContext context) {
         String name = getArmorName(armorType, rarity);
         int baseValue = 5 + heroLevel;
         int rarityMultiplier = getRarityMultiplier(rarity);
         
-        Equipment.Builder builder = new Equipment.Builder(nextId++, name, armorType, rarity)
+        Equipment.Builder builder = new Equipment.Builder(context.nextItemId(), name, armorType, rarity)
                 .description("Une pièce d'armure " + rarity.getDisplayName().toLowerCase());
         
         switch (armorType) {
@@ -136,8 +161,15 @@ public class EquipmentFactory {
     /**
      * Create a potion that sets HP to current+5.
      */
-    public static Equipment createPotion() {
-        return new Equipment.Builder(nextId++, "Potion de Soin", Equipment.EquipmentType.POTION, Equipment.Rarity.COMMON)
+    public static synchronized Equipment createPotion() {
+        return createPotion(sharedContext);
+    }
+    
+    /**
+     * Create a potion, drawing its id from a generation context.
+     */
+    public static Equipment createPotion(GenerationContext context) {
+        return new Equipment.Builder(context.nextItemId(), "Potion de Soin", Equipment.EquipmentType.POTION, Equipment.Rarity.COMMON)
                 .pvRecovery(5)
                 .description("Ajoute 5 PV")
                 .build();
@@ -146,10 +178,17 @@ public class EquipmentFactory {
     /**
      * Create a rune.
      */
-    public static Equipment createRune(Equipment.EquipmentType runeType, int value) {
+    public static synchronized Equipment createRune(Equipment.EquipmentType runeType, int value) {
+        return createRune(runeType, value, sharedContext);
+    }
+    
+    /**
+     * Create a rune, drawing its id from a generation context.
+     */
+    public static Equipment createRune(Equipment.EquipmentType runeType, int value, GenerationContext context) {
         String name = getRuneName(runeType);
         
-        Equipment.Builder builder = new Equipment.Builder(nextId++, name, runeType, Equipment.Rarity.RARE)
+        Equipment.Builder builder = new Equipment.Builder(context.nextItemId(), name, runeType, Equipment.Rarity.RARE)
                 .description("Augmente de façon permanente " + name);
         
         switch (runeType) {
@@ -183,31 +222,31 @@ public class EquipmentFactory {
     
     // Helper methods
     
-    private static Equipment.EquipmentType getRandomWarriorWeapon() {
+    private static Equipment.EquipmentType getRandomWarriorWeapon(GenerationContext context) {
         Equipment.EquipmentType[] weapons = {
             Equipment.EquipmentType.SWORD,
             Equipment.EquipmentType.HAMMER,
             Equipment.EquipmentType.AXE
         };
-        return weapons[random.nextInt(weapons.length)];
+        return weapons[context.nextInt(weapons.length)];
     }
     
-    private static Equipment.EquipmentType getRandomArcherWeapon() {
+    private static Equipment.EquipmentType getRandomArcherWeapon(GenerationContext context) {
         Equipment.EquipmentType[] weapons = {
             Equipment.EquipmentType.CROSSBOW,
             Equipment.EquipmentType.BOW,
             Equipment.EquipmentType.DAGGER
         };
-        return weapons[random.nextInt(weapons.length)];
+        return weapons[context.nextInt(weapons.length)];
     }
     
-    private static Equipment.EquipmentType getRandomMageWeapon() {
+    private static Equipment.EquipmentType getRandomMageWeapon(GenerationContext context) {
         Equipment.EquipmentType[] weapons = {
             Equipment.EquipmentType.WAND,
             Equipment.EquipmentType.STAFF,
             Equipment.EquipmentType.SCEPTER
         };
-        return weapons[random.nextInt(weapons.length)];
+        return weapons[context.nextInt(weapons.length)];
     }
     
     private static int getRarityMultiplier(Equipment.Rarity rarity) {
@@ -0,0 +1,442 @@
+package base;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the player's actions, to resume a game exactly
+ * where it was left.
+ *
+ * The journal starts with a checkpoint: the game state (GameStateCodec)
+ * at the moment a floor was loaded. Every action that changes the game
+ * (move, attack, enemy turn, equip, unequip, item use, stat points) is then
+ * appended as a small record, so saving costs a few bytes per action.
+ * Floors are generated from their seed and combat has no randomness, so
+ * replaying the actions on the checkpoint rebuilds the same level (opened
+ * chests, killed mobs, wounded enemy) and the same hero.
+ *
+ * Each new floor writes a new checkpoint, which compacts the journal: the
+ * file is replaced atomically by one holding only that checkpoint. So does
+ * a floor in play every CHECKPOINT_INTERVAL actions, the checkpoint then
+ * holding the floor's changes (see LevelDelta).
+ *
+ * Record layout: type (1 byte) | payload length (varint) | payload | CRC32
+ * of the preceding bytes. A record cut short by a crash fails its CRC; it
+ * and anything after it are dropped when the journal is read.
+ *
+ * The game thread only encodes records. A single writer thread does all the
+ * file work in order, so a checkpoint (force and rename) never stalls the
+ * game, and the records that follow it land in the new file.
+ */
+public class GameJournal {
+
+    // "RPJL"
+    static final int MAGIC = 0x52504A4C;
+    public static final int VERSION = 1;
+
+    // Record types
+    static final int CHECKPOINT = 1;
+    static final int MOVE = 2;
+    static final int ATTACK = 3;
+    static final int ENEMY_TURN = 4;
+    static final int EQUIP = 5;
+    static final int UNEQUIP = 6;
+    static final int USE_ITEM = 7;
+    static final int SPEND_STAT = 8;
+
+    private static final int HEADER_SIZE = 5;
+
+    /**
+     * Number of actions after which a new checkpoint is due.
+     */
+    public static final int CHECKPOINT_INTERVAL = 256;
+
+    private final Path file;
+    private final ExecutorService writer;
+
+    // Owned by the writer thread
+    private FileChannel channel;
+
+    // Owned by the game thread
+    private boolean suspended;
+    private boolean open;
+    private int recordCount;
+
+    public GameJournal(String filename) {
+        this.file = Paths.get(filename);
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start the journal over from the given state, replacing the file.
+     */
+    public void checkpoint(GameState state) {
+        if (suspended) {
+            return;
+        }
+        byte[] snapshot = GameStateCodec.encode(state);
+        GameStateCodec.Writer out = new GameStateCodec.Writer(snapshot.length + 32);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        writeRecord(out, CHECKPOINT, snapshot, snapshot.length);
+        byte[] data = out.toByteArray();
+        open = true;
+        recordCount = 0;
+        write(() -> {
+            closeChannel();
+            AutoSaver.writeAtomically(file, data);
+            channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        });
+    }
+
+    public void recordMove(GameManager.Direction direction) {
+        append(MOVE, direction.ordinal());
+    }
+
+    public void recordAttack() {
+        append(ATTACK);
+    }
+
+    public void recordEnemyTurn() {
+        append(ENEMY_TURN);
+    }
+
+    /**
+     * @param index index of the item in the inventory list
+     */
+    public void recordEquip(int index) {
+        append(EQUIP, index);
+    }
+
+    public void recordUnequip(Equipment.EquipmentType slot) {
+        append(UNEQUIP, slot.ordinal());
+    }
+
+    /**
+     * @param index index of the item in the inventory list
+     */
+    public void recordUseItem(int index) {
+        append(USE_ITEM, index);
+    }
+
+    public void recordSpendStat(String stat, int amount) {
+        if (!isRecording()) {
+            return;
+        }
+        byte[] name = stat.getBytes(StandardCharsets.UTF_8);
+        GameStateCodec.Writer payload = new GameStateCodec.Writer(name.length + 10);
+        payload.writeZigZag(amount);
+        payload.writeVarInt(name.length);
+        payload.writeBytes(name, name.length);
+        append(SPEND_STAT, payload);
+    }
+
+    private void append(int type, int... values) {
+        if (!isRecording()) {
+            return;
+        }
+        GameStateCodec.Writer payload = new GameStateCodec.Writer(5 * values.length);
+        for (int value : values) {
+            payload.writeVarInt(value);
+        }
+        append(type, payload);
+    }
+
+    private void append(int type, GameStateCodec.Writer payload) {
+        byte[] bytes = payload.toByteArray();
+        GameStateCodec.Writer out = new GameStateCodec.Writer(bytes.length + 10);
+        writeRecord(out, type, bytes, bytes.length);
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+        recordCount++;
+        write(() -> {
+            if (channel == null) {
+                return;
+            }
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        });
+    }
+
+    private boolean isRecording() {
+        return !suspended && open;
+    }
+
+    /**
+     * Run file work on the writer thread, after the work already queued.
+     */
+    private void write(FileTask task) {
+        if (writer.isShutdown()) {
+            return;
+        }
+        writer.execute(() -> {
+            try {
+                task.run();
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+    }
+
+    private interface FileTask {
+        void run() throws IOException;
+    }
+
+    private static void writeRecord(GameStateCodec.Writer out, int type, byte[] payload, int length) {
+        int start = out.size();
+        out.writeByte(type);
+        out.writeVarInt(length);
+        out.writeBytes(payload, length);
+        CRC32 crc = new CRC32();
+        crc.update(out.toByteArray(), start, out.size() - start);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Stop recording, e.g. while the journal itself is being replayed.
+     */
+    public void suspend() {
+        suspended = true;
+    }
+
+    /**
+     * Check if recording is suspended (see {@link #suspend()}).
+     */
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    /**
+     * Record again, appending after the valid part of the file. A torn
+     * record left by a crash is cut off first.
+     * @param validLength length of the file that was read successfully
+     */
+    public void resumeAt(long validLength) {
+        suspended = false;
+        open = true;
+        write(() -> {
+            closeChannel();
+            channel = FileChannel.open(file, StandardOpenOption.WRITE);
+            channel.truncate(validLength);
+            channel.position(validLength);
+        });
+    }
+
+    /**
+     * Write what is queued, force the journal to disk, close it and stop
+     * the writer thread. Later calls do nothing.
+     */
+    public void close() {
+        write(() -> {
+            if (channel != null) {
+                channel.force(false);
+            }
+            closeChannel();
+        });
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * The game goes on without a journal when the file cannot be written.
+     */
+    private void fail(IOException e) {
+        System.err.println("Journal error, recording stopped: " + e.getMessage());
+        try {
+            closeChannel();
+        } catch (IOException ignored) {
+            channel = null;
+        }
+    }
+
+    /**
+     * Check if enough actions were recorded to make a new checkpoint
+     * worthwhile.
+     */
+    public boolean isCheckpointDue() {
+        return isRecording() && recordCount >= CHECKPOINT_INTERVAL;
+    }
+
+    /**
+     * Number of actions recorded since the last checkpoint.
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Check if a journal file exists.
+     */
+    public static boolean exists(String filename) {
+        return Files.isRegularFile(Paths.get(filename));
+    }
+
+    /**
+     * Read a journal: its last checkpoint and the actions recorded after it.
+     * @throws IOException if the file cannot be read, is not a journal, or
+     *         holds no valid checkpoint
+     */
+    public static Contents read(String filename) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(Paths.get(filename)));
+        if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC) {
+            throw new IOException("Not a journal file: " + filename);
+        }
+        int version = in.get() & 0xFF;
+        if (version != VERSION) {
+            throw new IOException("Unsupported journal version: " + version);
+        }
+
+        GameState checkpoint = null;
+        List<ByteBuffer> actions = new ArrayList<>();
+        long validLength = in.position();
+        while (in.hasRemaining()) {
+            ByteBuffer record = nextRecord(in);
+            if (record == null) {
+                System.err.println("Journal: " + (in.limit() - validLength)
+                        + " bytes of incomplete record dropped");
+                break;
+            }
+            if (record.get(0) == CHECKPOINT) {
+                ByteBuffer payload = record.duplicate();
+                payload.position(1);
+                GameStateCodec.readVarInt(payload);
+                checkpoint = GameStateCodec.decode(payload);
+                actions.clear();
+            } else {
+                actions.add(record);
+            }
+            validLength = in.position();
+        }
+        if (checkpoint == null) {
+            throw new IOException("Journal has no checkpoint: " + filename);
+        }
+        return new Contents(checkpoint, actions, validLength);
+    }
+
+    /**
+     * Read the record at the buffer position: returns it without its CRC
+     * and moves past it, or returns null if it is incomplete or corrupted.
+     */
+    private static ByteBuffer nextRecord(ByteBuffer in) {
+        int start = in.position();
+        try {
+            in.get();
+            int length = GameStateCodec.readVarInt(in);
+            if (length < 0 || length > in.remaining() - 4) {
+                return null;
+            }
+            int end = in.position() + length;
+            CRC32 crc = new CRC32();
+            ByteBuffer covered = in.duplicate();
+            covered.position(start).limit(end);
+            crc.update(covered);
+            if ((int) crc.getValue() != in.getInt(end)) {
+                return null;
+            }
+            ByteBuffer record = in.duplicate();
+            record.position(start).limit(end);
+            in.position(end + 4);
+            return record.slice();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * What a journal holds: a checkpoint and the actions to replay on it.
+     */
+    public static final class Contents {
+        private final GameState checkpoint;
+        private final List<ByteBuffer> actions;
+        private final long validLength;
+
+        Contents(GameState checkpoint, List<ByteBuffer> actions, long validLength) {
+            this.checkpoint = checkpoint;
+            this.actions = actions;
+            this.validLength = validLength;
+        }
+
+        /**
+         * Replay the actions on a game manager built from the checkpoint.
+         * @throws IOException if an action does not fit the game (e.g. an
+         *         item index out of the inventory)
+         */
+        public void replay(GameManager manager) throws IOException {
+            for (ByteBuffer action : actions) {
+                ByteBuffer in = action.duplicate();
+                int type = in.get();
+                GameStateCodec.readVarInt(in);
+                try {
+                    apply(manager, type, in);
+                } catch (RuntimeException e) {
+                    throw new IOException("Journal does not match its checkpoint", e);
+                }
+            }
+        }
+
+        private static void apply(GameManager manager, int type, ByteBuffer in) {
+            Inventaire inventory = manager.getInventory();
+            switch (type) {
+                case MOVE:
+                    manager.movePlayer(GameManager.Direction.values()[GameStateCodec.readVarInt(in)]);
+                    break;
+                case ATTACK:
+                    manager.playerAttack();
+                    break;
+                case ENEMY_TURN:
+                    manager.enemyTurn();
+                    break;
+                case EQUIP:
+                    manager.equipItem(inventory.getInventory().get(GameStateCodec.readVarInt(in)));
+                    break;
+                case UNEQUIP:
+                    Equipment.EquipmentType slot =
+                            Equipment.EquipmentType.values()[GameStateCodec.readVarInt(in)];
+                    manager.unequipItem(inventory.getEquippedItem(slot));
+                    break;
+                case USE_ITEM:
+                    manager.useItem(inventory.getInventory().get(GameStateCodec.readVarInt(in)));
+                    break;
+                case SPEND_STAT:
+                    int amount = GameStateCodec.readZigZag(in);
+                    byte[] name = new byte[GameStateCodec.readVarInt(in)];
+                    in.get(name);
+                    manager.spendStatPoints(new String(name, StandardCharsets.UTF_8), amount);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown journal record type: " + type);
+            }
+        }
+
+        public GameState getCheckpoint() { return checkpoint; }
+        public int getActionCount() { return actions.size(); }
+        public long getValidLength() { return validLength; }
+    }
+}
@@ -1,6 +1,6 @@
 package base;
 
-import java.util.Map;
+import java.io.IOException;
 
 /**
  * Main game manager that coordinates all game systems.
@@ -10,15 +10,56 @@ public class GameManager {
     
     private final GameState gameState;
     private Level currentLevel;
+    private long currentSeed;
+    private LevelDelta.Baseline levelBaseline;
+    private NavigationField navigation;
+    private PathFinder pathFinder;
+    private final LevelPrefetcher prefetcher;
+    private final AutoSaver autoSaver;
+    private final GameJournal journal;
+    private int[] pendingPath;
+    private int pendingStep;
     private Level.Position playerPosition;
     private CombatManager combatManager;
     private ChestOpenCallback chestOpenCallback;
     private LevelUpCallback levelUpCallback;
     
     public GameManager(GameState gameState) {
+        this(gameState, new GameJournal(Constants.JOURNAL_FILE));
+    }
+    
+    private GameManager(GameState gameState, GameJournal journal) {
         this.gameState = gameState;
         this.combatManager = new CombatManager(gameState.getHero());
-        loadLevel(gameState.getCurrentFloor());
+        this.prefetcher = new LevelPrefetcher();
+        this.autoSaver = new AutoSaver(Constants.AUTOSAVE_FILE);
+        this.journal = journal;
+        LevelDelta delta = gameState.getLevelDelta();
+        if (delta != null && delta.getFloor() == gameState.getCurrentFloor()
+                && gameState.getPlayerPosition() != null) {
+            restoreLevel(delta, gameState.getPlayerPosition());
+        } else {
+            loadLevel(gameState.getCurrentFloor());
+        }
+    }
+    
+    /**
+     * Resume the game recorded in a journal: the last checkpoint is loaded
+     * and the actions recorded since are replayed, so the floor is exactly
+     * as the player left it. Recording then continues in the same journal.
+     * Call before setting any callback, so the replay stays silent.
+     */
+    public static GameManager resume(String journalFile) throws IOException {
+        long start = System.nanoTime();
+        GameJournal.Contents contents = GameJournal.read(journalFile);
+        GameJournal journal = new GameJournal(journalFile);
+        journal.suspend();
+        GameManager manager = new GameManager(contents.getCheckpoint(), journal);
+        contents.replay(manager);
+        journal.resumeAt(contents.getValidLength());
+        System.out.println("Game resumed from " + journalFile + " (" + contents.getActionCount()
+                + " actions replayed in " + (System.nanoTime() - start) / 1000 + " us)");
+        return manager;
     }
     
     /**
@@ -37,11 +78,95 @@ public class GameManager {
     
     /**
      * Load a specific floor/level.
+     * The level is taken from the prefetch cache when it was generated in
+     * the background, and generation of the following floor starts at once.
      */
     public void loadLevel(int floorNumber) {
-        this.currentLevel = LevelFactory.createLevel(floorNumber);
-        this.playerPosition = currentLevel.getSpawnPosition();
+        long seed = LevelFactory.seedFor(floorNumber);
+        Level level = prefetcher.take(floorNumber, seed);
+        gameState.setLevelState(null, null);
+        enterLevel(level, seed, LevelDelta.Baseline.of(level), level.getSpawnPosition());
+    }
+    
+    /**
+     * Bring back a floor as it was saved: the level is regenerated from its
+     * seed and the saved changes are applied to it.
+     */
+    private void restoreLevel(LevelDelta delta, Level.Position position) {
+        Level level = LevelFactory.createLevel(delta.getFloor(), delta.getSeed());
+        LevelDelta.Baseline baseline = LevelDelta.Baseline.of(level);
+        delta.applyTo(level);
+        enterLevel(level, delta.getSeed(), baseline, position);
+    }
+    
+    private void enterLevel(Level level, long seed, LevelDelta.Baseline baseline, Level.Position position) {
+        int floorNumber = level.getFloorNumber();
+        this.currentLevel = level;
+        this.currentSeed = seed;
+        this.levelBaseline = baseline;
+        this.navigation = new NavigationField(currentLevel);
+        if (pathFinder == null || pathFinder.getWidth() != currentLevel.getWidth()
+                || pathFinder.getHeight() != currentLevel.getHeight()) {
+            this.pathFinder = new PathFinder(currentLevel.getWidth(), currentLevel.getHeight());
+        }
+        this.playerPosition = position;
+        cancelPath();
         gameState.setCurrentFloor(floorNumber);
+        journal.checkpoint(gameState);
+        prefetcher.prefetch(floorNumber + 1, LevelFactory.seedFor(floorNumber + 1));
+    }
+    
+    /**
+     * Store the changes made to the current floor and the player position
+     * in the game state, so that saving it keeps the floor as it is.
+     */
+    public void captureLevelState() {
+        gameState.setLevelState(LevelDelta.capture(currentLevel, currentSeed, levelBaseline), playerPosition);
+    }
+    
+    /**
+     * Start the journal over from the current state once enough actions
+     * were recorded. Not during a combat, which the game state does not hold.
+     */
+    private void checkpointIfDue() {
+        if (journal.isCheckpointDue() && !combatManager.isCombatActive()) {
+            captureLevelState();
+            journal.checkpoint(gameState);
+        }
+    }
+    
+    /**
+     * Stop background level generation, finish writing autosaves and close
+     * the journal. Call when the game ends; calling it again does nothing more.
+     */
+    public void shutdown() {
+        prefetcher.shutdown();
+        autoSaver.shutdown();
+        journal.close();
+    }
+    
+    /**
+     * Save the game to the autosave file in the background. Done on floor
+     * change, chest opening and level up. Skipped while the journal is
+     * replayed: those are past states, the autosave already went past them.
+     */
+    public void autosave() {
+        if (journal.isSuspended()) {
+            return;
+        }
+        captureLevelState();
+        autoSaver.request(gameState);
+    }
+    
+    /**
+     * Autosave if the hero gained a level since levelBefore. Called once an
+     * action is complete, never from the hero's level up callback: that one
+     * fires in the middle of a kill, before the mob leaves the level.
+     */
+    private void autosaveIfLevelUp(int levelBefore) {
+        if (gameState.getHero().getLevel() > levelBefore) {
+            autosave();
+        }
     }
     
     /**
@@ -56,6 +181,7 @@ public class GameManager {
         }
         
         loadLevel(nextFloor);
+        autosave();
         System.out.println("Avancé au niveau " + nextFloor);
     }
     
@@ -64,6 +190,8 @@ public class GameManager {
      * @return true if move was successful, false otherwise
      */
     public MoveResult movePlayer(Direction direction) {
+        checkpointIfDue();
+        journal.recordMove(direction);
         int newX = playerPosition.getX();
         int newY = playerPosition.getY();
         
@@ -88,7 +216,7 @@ public class GameManager {
         }
         
         // Check bounds first
-        if (newX < 0 || newX >= Constants.BOARD_WIDTH || newY < 0 || newY >= Constants.BOARD_HEIGHT) {
+        if (newX < 0 || newX >= currentLevel.getWidth() || newY < 0 || newY >= currentLevel.getHeight()) {
             return new MoveResult(false, "Impossible de se déplacer là - hors limites !");
         }
         
@@ -132,10 +260,121 @@ public class GameManager {
         }
         
         // Move successful
-        playerPosition = new Level.Position(newX, newY);
+        playerPosition = Level.Position.of(newX, newY);
         return new MoveResult(true, "Déplacé " + direction.toFrench());
     }
     
+    /**
+     * Plan a path from the player to a tile, to be walked with followPath().
+     * Replaces any path already in progress.
+     * @return true if the tile can be reached
+     */
+    public boolean planPathTo(int x, int y) {
+        cancelPath();
+        if (combatManager.isCombatActive()) {
+            return false;
+        }
+        int[] path = pathFinder.findPath(currentLevel, playerPosition.getX(), playerPosition.getY(), x, y);
+        if (path == null || path.length == 0) {
+            return false;
+        }
+        pendingPath = path;
+        pendingStep = 0;
+        return true;
+    }
+    
+    /**
+     * Plan a path from the player to the nearest target of a kind (the
+     * exit, an unopened chest or the boss), to be walked with followPath().
+     * The path is read from the navigation field, without a search.
+     * Replaces any path already in progress.
+     * @return true if such a target can be reached
+     */
+    public boolean planPathToward(NavigationField.Target target) {
+        cancelPath();
+        if (combatManager.isCombatActive()) {
+            return false;
+        }
+        int x = playerPosition.getX();
+        int y = playerPosition.getY();
+        int length = navigation.distance(target, x, y);
+        if (length == 0 || length == NavigationField.UNREACHABLE) {
+            return false;
+        }
+        int[] path = new int[length];
+        for (int i = 0; i < length; i++) {
+            switch (navigation.nextStep(target, x, y)) {
+                case UP: y--; break;
+                case DOWN: y++; break;
+                case LEFT: x--; break;
+                case RIGHT: x++; break;
+            }
+            path[i] = currentLevel.keyOf(x, y);
+        }
+        pendingPath = path;
+        pendingStep = 0;
+        return true;
+    }
+    
+    /**
+     * Check if a planned path still has steps to walk.
+     */
+    public boolean hasPendingPath() {
+        return pendingPath != null;
+    }
+    
+    /**
+     * Drop the planned path, if any.
+     */
+    public void cancelPath() {
+        pendingPath = null;
+        pendingStep = 0;
+    }
+    
+    /**
+     * Walk one step of the planned path.
+     * The walk stops when a move fails, a combat starts (including boss
+     * aggro), a chest is opened or the floor changes.
+     */
+    public MoveResult followPath() {
+        if (pendingPath == null) {
+            return new MoveResult(false, "Aucun déplacement en cours");
+        }
+        int key = pendingPath[pendingStep++];
+        int nextX = currentLevel.keyX(key);
+        int nextY = currentLevel.keyY(key);
+        int dx = nextX - playerPosition.getX();
+        int dy = nextY - playerPosition.getY();
+        
+        Direction direction;
+        if (dx == 0 && dy == -1) {
+            direction = Direction.UP;
+        } else if (dx == 0 && dy == 1) {
+            direction = Direction.DOWN;
+        } else if (dx == -1 && dy == 0) {
+            direction = Direction.LEFT;
+        } else if (dx == 1 && dy == 0) {
+            direction = Direction.RIGHT;
+        } else {
+            // Player was moved by something else, the path is stale
+            cancelPath();
+            return new MoveResult(false, "Déplacement interrompu");
+        }
+        
+        Level.Chest chest = currentLevel.getChest(nextX, nextY);
+        boolean opensChest = chest != null && !chest.isOpened();
+        Level levelBefore = currentLevel;
+        
+        MoveResult result = movePlayer(direction);
+        
+        if (!result.isSuccess() || combatManager.isCombatActive() || opensChest
+                || currentLevel != levelBefore || pendingPath == null
+                || pendingStep >= pendingPath.length) {
+            cancelPath();
+        }
+        return result;
+    }
+    
     /**
      * Find a nearby boss within the specified distance.
      * @param x Player's X position
@@ -144,17 +383,12 @@ public class GameManager {
      * @return Position of nearby boss, or null if none found
      */
     private Level.Position findNearbyBoss(int x, int y, int maxDistance) {
-        for (Map.Entry<Level.Position, Mob> entry : currentLevel.getMobs().entrySet()) {
-            Mob mob = entry.getValue();
-            if (mob.getType() == Mob.MobType.BOSS) {
-                Level.Position bossPos = entry.getKey();
-                int distance = Math.abs(bossPos.getX() - x) + Math.abs(bossPos.getY() - y);
-                if (distance <= maxDistance) {
-                    return bossPos;
-                }
-            }
+        // Bosses are indexed separately, so this does not depend on the mob count
+        int key = currentLevel.findMobWithin(x, y, maxDistance, Mob.MobType.BOSS);
+        if (key < 0) {
+            return null;
         }
-        return null;
+        return Level.Position.of(currentLevel.keyX(key), currentLevel.keyY(key));
     }
     
     /**
@@ -167,6 +401,7 @@ public class GameManager {
         }
         
         chest.open();
+        navigation.chestsChanged();
         Inventaire inventory = gameState.getInventory();
         boolean inventoryFull = false;
         
@@ -178,6 +413,8 @@ public class GameManager {
             }
         }
         
+        autosave();
+        
         // Notify via callback if set
         if (chestOpenCallback != null) {
             chestOpenCallback.onChestOpen(chest, inventoryFull);
@@ -188,10 +425,13 @@ public class GameManager {
      * Player attacks in combat.
      */
     public CombatManager.CombatResult playerAttack() {
+        checkpointIfDue();
+        journal.recordAttack();
         if (!combatManager.isCombatActive()) {
             return new CombatManager.CombatResult(false, "Pas de combat actif");
         }
         
+        int levelBefore = gameState.getHero().getLevel();
         CombatManager.CombatResult result = combatManager.heroAttack();
         
         // If enemy defeated, remove from level
@@ -199,8 +439,13 @@ public class GameManager {
             // Combat ended due to mob defeat - remove it from the level
             int mobX = combatManager.getEnemyX();
             int mobY = combatManager.getEnemyY();
+            Mob defeated = currentLevel.getMob(mobX, mobY);
             currentLevel.removeMob(mobX, mobY);
+            if (defeated != null) {
+                navigation.mobRemoved(mobX, mobY, defeated.getType());
+            }
         }
+        autosaveIfLevelUp(levelBefore);
         
         return result;
     }
@@ -209,6 +454,8 @@ public class GameManager {
      * Enemy turn in combat.
      */
     public CombatManager.CombatResult enemyTurn() {
+        checkpointIfDue();
+        journal.recordEnemyTurn();
         return combatManager.enemyTurn();
     }
     
@@ -220,7 +467,59 @@ public class GameManager {
             return false;
         }
         
-        return gameState.getInventory().useItem(potion);
+        return useItem(potion);
+    }
+    
+    /**
+     * Equip an item from the inventory.
+     */
+    public boolean equipItem(Equipment item) {
+        Inventaire inventory = gameState.getInventory();
+        int index = inventory.getInventory().indexOf(item);
+        if (index < 0) {
+            return false;
+        }
+        checkpointIfDue();
+        journal.recordEquip(index);
+        return inventory.equipItem(item);
+    }
+    
+    /**
+     * Unequip an item, back to the inventory.
+     */
+    public boolean unequipItem(Equipment item) {
+        if (item == null || !item.isEquipped()) {
+            return false;
+        }
+        checkpointIfDue();
+        journal.recordUnequip(item.getType());
+        return gameState.getInventory().unequipItem(item);
+    }
+    
+    /**
+     * Use a consumable item (potion or rune) from the inventory.
+     */
+    public boolean useItem(Equipment item) {
+        Inventaire inventory = gameState.getInventory();
+        int index = inventory.getInventory().indexOf(item);
+        if (index < 0) {
+            return false;
+        }
+        checkpointIfDue();
+        journal.recordUseItem(index);
+        int levelBefore = gameState.getHero().getLevel();
+        boolean used = inventory.useItem(item);
+        autosaveIfLevelUp(levelBefore);
+        return used;
+    }
+    
+    /**
+     * Spend the hero's stat points on an attribute.
+     */
+    public boolean spendStatPoints(String stat, int amount) {
+        checkpointIfDue();
+        journal.recordSpendStat(stat, amount);
+        return gameState.getHero().spendStatPoints(stat, amount);
     }
     
     /**
@@ -228,6 +527,7 @@ public class GameManager {
      */
     public boolean saveGame(String filename) {
         try {
+            captureLevelState();
             gameState.save(filename);
             System.out.println("Game saved successfully!");
             return true;
@@ -238,6 +538,24 @@ public class GameManager {
         }
     }
     
+    /**
+     * Save the game in the save slot with the given name (see SaveSlotStore).
+     */
+    public boolean saveToSlot(String slotName) {
+        try (SaveSlotStore store = SaveSlotStore.open(Constants.SLOT_FILE)) {
+            captureLevelState();
+            long start = System.nanoTime();
+            int slot = store.save(slotName, gameState);
+            System.out.println("Game saved in slot " + slot + " (" + slotName + ", "
+                    + (System.nanoTime() - start) / 1000 + " us)");
+            return true;
+        } catch (Exception e) {
+            System.err.println("Failed to save game: " + e.getMessage());
+            e.printStackTrace();  // Print full stack trace for debugging
+            return false;
+        }
+    }
+    
     /**
      * Load a saved game.
      */
@@ -254,6 +572,7 @@ public class GameManager {
     // Getters
     public GameState getGameState() { return gameState; }
     public Level getCurrentLevel() { return currentLevel; }
+    public NavigationField getNavigation() { return navigation; }
     public Level.Position getPlayerPosition() { return playerPosition; }
     public CombatManager getCombatManager() { return combatManager; }
     public Hero getHero() { return gameState.getHero(); }
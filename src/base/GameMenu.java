@@ -3,6 +3,10 @@ package base;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.text.SimpleDateFormat;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
 
 /**
  * Menu system for the game.
@@ -39,6 +43,14 @@ public class GameMenu extends JFrame {
         
         mainPanel.add(Box.createRigidArea(new Dimension(0, 30)));
         
+        // Resume button, when a game was left in progress
+        JButton resumeBtn = createMenuButton("Reprendre la Partie");
+        resumeBtn.setEnabled(GameJournal.exists(Constants.JOURNAL_FILE));
+        resumeBtn.addActionListener(e -> resumeGame());
+        mainPanel.add(resumeBtn);
+        
+        mainPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+        
         // New Game button
         JButton newGameBtn = createMenuButton("Nouvelle Partie");
         newGameBtn.addActionListener(e -> showNewGameDialog());
@@ -220,9 +232,137 @@ public class GameMenu extends JFrame {
     }
     
     /**
-     * Load a saved game.
+     * Load a saved game: list the save slots and load the one chosen. If
+     * the slot file cannot be opened, pick a save file instead.
      */
     private void loadGame() {
+        SaveSlotStore store;
+        try {
+            store = SaveSlotStore.open(Constants.SLOT_FILE);
+        } catch (Exception ex) {
+            // Old save files can still be loaded without the slots
+            System.err.println("Save slots unavailable: " + ex.getMessage());
+            loadGameFile();
+            return;
+        }
+        try (store) {
+            showSlotDialog(store);
+        } catch (Exception ex) {
+            showLoadError(ex);
+        }
+    }
+    
+    /**
+     * Show the save slots, most recent first. Only the slot index is read
+     * here, a save is decoded when it is loaded.
+     */
+    private void showSlotDialog(SaveSlotStore store) {
+        JDialog dialog = new JDialog(this, "Charger une Partie", true);
+        dialog.setSize(450, 350);
+        dialog.setLocationRelativeTo(this);
+        
+        DefaultListModel<SaveSlotStore.SlotInfo> model = new DefaultListModel<>();
+        List<SaveSlotStore.SlotInfo> slots = store.list();
+        slots.sort(Comparator.comparingLong(SaveSlotStore.SlotInfo::getTimestamp).reversed());
+        slots.forEach(model::addElement);
+        
+        JList<SaveSlotStore.SlotInfo> slotList = new JList<>(model);
+        slotList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        slotList.setSelectedIndex(0);
+        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+        slotList.setCellRenderer(new DefaultListCellRenderer() {
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                SaveSlotStore.SlotInfo slot = (SaveSlotStore.SlotInfo) value;
+                String text = slot.getName() + " - " + slot.getHeroType()
+                        + " niveau " + slot.getLevel() + ", étage " + slot.getFloor()
+                        + " - " + dateFormat.format(new Date(slot.getTimestamp()));
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+        
+        JButton loadBtn = new JButton("Charger");
+        JButton deleteBtn = new JButton("Supprimer");
+        JButton fileBtn = new JButton("Autre fichier...");
+        JButton cancelBtn = new JButton("Annuler");
+        loadBtn.setEnabled(!model.isEmpty());
+        deleteBtn.setEnabled(!model.isEmpty());
+        
+        Runnable loadSelected = () -> {
+            SaveSlotStore.SlotInfo slot = slotList.getSelectedValue();
+            if (slot == null) {
+                return;
+            }
+            try {
+                GameState state = store.load(slot.getSlot());
+                dialog.dispose();
+                startLoadedGame(state);
+            } catch (Exception ex) {
+                showLoadError(ex);
+            }
+        };
+        loadBtn.addActionListener(e -> loadSelected.run());
+        slotList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    loadSelected.run();
+                }
+            }
+        });
+        
+        deleteBtn.addActionListener(e -> {
+            SaveSlotStore.SlotInfo slot = slotList.getSelectedValue();
+            if (slot == null) {
+                return;
+            }
+            int confirm = JOptionPane.showConfirmDialog(
+                dialog,
+                "Supprimer la sauvegarde \"" + slot.getName() + "\" ?",
+                "Supprimer",
+                JOptionPane.YES_NO_OPTION
+            );
+            if (confirm == JOptionPane.YES_OPTION) {
+                store.delete(slot.getSlot());
+                model.removeElement(slot);
+                slotList.setSelectedIndex(0);
+                loadBtn.setEnabled(!model.isEmpty());
+                deleteBtn.setEnabled(!model.isEmpty());
+            }
+        });
+        
+        fileBtn.addActionListener(e -> {
+            dialog.dispose();
+            loadGameFile();
+        });
+        cancelBtn.addActionListener(e -> dialog.dispose());
+        
+        JPanel buttonPanel = new JPanel();
+        buttonPanel.add(loadBtn);
+        buttonPanel.add(deleteBtn);
+        buttonPanel.add(fileBtn);
+        buttonPanel.add(cancelBtn);
+        
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        if (model.isEmpty()) {
+            panel.add(new JLabel("Aucune sauvegarde.", SwingConstants.CENTER), BorderLayout.CENTER);
+        } else {
+            panel.add(new JScrollPane(slotList), BorderLayout.CENTER);
+        }
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+        
+        dialog.add(panel);
+        dialog.setVisible(true);
+    }
+    
+    /**
+     * Load a game from a save file, e.g. one written before save slots.
+     */
+    private void loadGameFile() {
         JFileChooser fileChooser = new JFileChooser(".");
         fileChooser.setDialogTitle("Charger une Partie");
         fileChooser.setFileFilter(new javax.swing.filechooser.FileFilter() {
@@ -241,29 +381,63 @@ public class GameMenu extends JFrame {
         if (result == JFileChooser.APPROVE_OPTION) {
             try {
                 java.io.File file = fileChooser.getSelectedFile();
-                gameState = GameState.load(file.getAbsolutePath());
-                
-                JOptionPane.showMessageDialog(
-                    this,
-                    "Partie chargée avec succès !\nBienvenue de nouveau, " + gameState.getPlayerName(),
-                    "Chargement réussi",
-                    JOptionPane.INFORMATION_MESSAGE
-                );
-                
-                if (listener != null) {
-                    listener.onGameStart(gameState);
-                }
-                
-                this.dispose();
-                
+                startLoadedGame(GameState.load(file.getAbsolutePath()));
             } catch (Exception ex) {
-                JOptionPane.showMessageDialog(
-                    this,
-                    "Échec du chargement de la partie :\n" + ex.getMessage(),
-                    "Échec du Chargement",
-                    JOptionPane.ERROR_MESSAGE
-                );
+                showLoadError(ex);
+            }
+        }
+    }
+    
+    /**
+     * Start a loaded game and close the menu.
+     */
+    private void startLoadedGame(GameState state) {
+        gameState = state;
+        
+        JOptionPane.showMessageDialog(
+            this,
+            "Partie chargée avec succès !\nBienvenue de nouveau, " + gameState.getPlayerName(),
+            "Chargement réussi",
+            JOptionPane.INFORMATION_MESSAGE
+        );
+        
+        if (listener != null) {
+            listener.onGameStart(gameState);
+        }
+        
+        this.dispose();
+    }
+    
+    private void showLoadError(Exception ex) {
+        JOptionPane.showMessageDialog(
+            this,
+            "Échec du chargement de la partie :\n" + ex.getMessage(),
+            "Échec du Chargement",
+            JOptionPane.ERROR_MESSAGE
+        );
+    }
+    
+    /**
+     * Resume the game in progress from the journal, in the exact state it
+     * was left.
+     */
+    private void resumeGame() {
+        try {
+            GameManager gameManager = GameManager.resume(Constants.JOURNAL_FILE);
+            
+            if (listener != null) {
+                listener.onGameResume(gameManager);
             }
+            
+            this.dispose();
+            
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(
+                this,
+                "Impossible de reprendre la partie :\n" + ex.getMessage(),
+                "Échec de la Reprise",
+                JOptionPane.ERROR_MESSAGE
+            );
         }
     }
     
@@ -279,6 +453,15 @@ public class GameMenu extends JFrame {
      */
     public interface GameMenuListener {
         void onGameStart(GameState gameState);
+        
+        /**
+         * Called with a game resumed from the journal. By default only its
+         * state is used, and the floor starts over.
+         */
+        default void onGameResume(GameManager gameManager) {
+            gameManager.shutdown();
+            onGameStart(gameManager.getGameState());
+        }
     }
     
     /**
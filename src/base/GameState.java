@@ -1,6 +1,9 @@
 package base;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -16,6 +19,10 @@ public class GameState implements Serializable {
     private int currentFloor;
     private String playerName;
     
+    // State of the current floor, when saved mid-floor (null otherwise)
+    private LevelDelta levelDelta;
+    private Level.Position playerPosition;
+    
     public GameState(Hero hero, String playerName) {
         this.hero = hero;
         this.inventory = new Inventaire(hero);
@@ -23,6 +30,16 @@ public class GameState implements Serializable {
         this.playerName = playerName;
     }
     
+    /**
+     * Restore a game state from saved values (see GameStateCodec).
+     */
+    GameState(Hero hero, Inventaire inventory, int currentFloor, String playerName) {
+        this.hero = hero;
+        this.inventory = inventory;
+        this.currentFloor = currentFloor;
+        this.playerName = playerName;
+    }
+    
     // Getters
     public Hero getHero() {
         return hero;
@@ -40,37 +57,69 @@ public class GameState implements Serializable {
         return playerName;
     }
     
+    public LevelDelta getLevelDelta() {
+        return levelDelta;
+    }
+    
+    public Level.Position getPlayerPosition() {
+        return playerPosition;
+    }
+    
     // Setters
     public void setCurrentFloor(int floor) {
         this.currentFloor = floor;
         this.hero.setFloor(floor);
     }
     
+    /**
+     * Record the state of the current floor and where the player stands,
+     * or clear it (both null) when a floor starts afresh.
+     */
+    public void setLevelState(LevelDelta levelDelta, Level.Position playerPosition) {
+        this.levelDelta = levelDelta;
+        this.playerPosition = playerPosition;
+    }
+    
     public void advanceToNextFloor() {
         this.currentFloor++;
         this.hero.setFloor(this.currentFloor);
     }
     
     /**
-     * Save game state to file.
+     * Save game state to file, in the GameStateCodec format.
+     * The file is replaced atomically: a crash during the save leaves the
+     * previous one intact.
      */
     public void save(String filename) throws IOException {
-        try (FileOutputStream fileOut = new FileOutputStream(filename);
-             ObjectOutputStream out = new ObjectOutputStream(fileOut)) {
-            out.writeObject(this);
-            System.out.println("Game saved successfully to " + filename);
-        }
+        long start = System.nanoTime();
+        byte[] data = GameStateCodec.encode(this);
+        AutoSaver.writeAtomically(Paths.get(filename), data);
+        System.out.println("Game saved successfully to " + filename + " (" + data.length
+                + " bytes, " + (System.nanoTime() - start) / 1000 + " us)");
     }
     
     /**
-     * Load game state from file.
+     * Load game state from file. Saves written with Java serialization
+     * by older versions are still read.
      */
     public static GameState load(String filename) throws IOException, ClassNotFoundException {
-        try (FileInputStream fileIn = new FileInputStream(filename);
-             ObjectInputStream in = new ObjectInputStream(fileIn)) {
-            GameState state = (GameState) in.readObject();
-            System.out.println("Game loaded successfully from " + filename);
-            return state;
+        long start = System.nanoTime();
+        byte[] data = Files.readAllBytes(Paths.get(filename));
+        GameState state = decode(data);
+        System.out.println("Game loaded successfully from " + filename + " ("
+                + (System.nanoTime() - start) / 1000 + " us)");
+        return state;
+    }
+    
+    /**
+     * Decode a save, in the current format or the old serialized one.
+     */
+    static GameState decode(byte[] data) throws IOException, ClassNotFoundException {
+        if (GameStateCodec.isEncoded(data)) {
+            return GameStateCodec.decode(ByteBuffer.wrap(data));
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (GameState) in.readObject();
         }
     }
     
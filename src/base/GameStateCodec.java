@@ -0,0 +1,365 @@
+package base;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary save format for GameState.
+ *
+ * Layout:
+ * <pre>
+ *   magic "RPGS" | version (1 byte)
+ *   string table: count, then each string as length + UTF-8 bytes
+ *   game state: strings by table index, integers as varints
+ *   level state (version 2): a presence byte, then the player position and
+ *   the LevelDelta of the current floor
+ *   CRC32 of everything before it (4 bytes, big-endian)
+ * </pre>
+ * Non-negative counts and indices are plain varints; stats, which items and
+ * potions may push below zero, are zigzag varints. Equipment names and
+ * descriptions repeat a lot, so each distinct string is written once.
+ */
+public final class GameStateCodec {
+
+    // "RPGS"
+    static final int MAGIC = 0x52504753;
+    public static final int VERSION = 2;
+
+    private static final int FLAG_IN_INVENTORY = 1;
+    private static final int FLAG_EQUIPPED = 2;
+
+    private GameStateCodec() {}
+
+    /**
+     * Check if data starts with the magic of this format (as opposed to an
+     * old Java serialization save).
+     */
+    public static boolean isEncoded(byte[] data) {
+        return data.length >= 4 && ByteBuffer.wrap(data).getInt(0) == MAGIC;
+    }
+
+    /**
+     * Encode a game state.
+     */
+    public static byte[] encode(GameState state) {
+        // The body is written first, so the string table is complete
+        // when it is written in front of it
+        Writer body = new Writer(256);
+        Map<String, Integer> strings = new HashMap<>();
+        List<String> table = new ArrayList<>();
+
+        body.writeVarInt(intern(state.getPlayerName(), strings, table));
+        body.writeVarInt(state.getCurrentFloor());
+        writeHero(body, state.getHero());
+
+        Inventaire inventory = state.getInventory();
+        List<Equipment> items = inventory.getInventory();
+        body.writeVarInt(items.size());
+        for (Equipment item : items) {
+            writeEquipment(body, item, strings, table);
+        }
+        // Slot order, so the same state always encodes to the same bytes
+        Map<Equipment.EquipmentType, Equipment> equipped = new EnumMap<>(Equipment.EquipmentType.class);
+        equipped.putAll(inventory.getEquippedItems());
+        body.writeVarInt(equipped.size());
+        for (Map.Entry<Equipment.EquipmentType, Equipment> entry : equipped.entrySet()) {
+            body.writeVarInt(entry.getKey().ordinal());
+            writeEquipment(body, entry.getValue(), strings, table);
+        }
+        LevelDelta delta = state.getLevelDelta();
+        Level.Position position = state.getPlayerPosition();
+        if (delta != null && position != null) {
+            body.writeByte(1);
+            body.writeVarInt(position.getX());
+            body.writeVarInt(position.getY());
+            delta.writeTo(body);
+        } else {
+            body.writeByte(0);
+        }
+
+        Writer out = new Writer(body.size() + 64 * table.size() + 16);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeVarInt(table.size());
+        for (String s : table) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeVarInt(bytes.length);
+            out.writeBytes(bytes, bytes.length);
+        }
+        out.writeBytes(body.buffer, body.size());
+
+        CRC32 crc = new CRC32();
+        crc.update(out.buffer, 0, out.size());
+        out.writeInt((int) crc.getValue());
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a game state. The buffer is read from its position to its limit.
+     * @throws IOException if the data is not a save of a known version, or
+     *         is corrupted
+     */
+    public static GameState decode(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.slice();
+        if (in.remaining() < 9 || in.getInt(0) != MAGIC) {
+            throw new IOException("Not a save file");
+        }
+        int crcOffset = in.limit() - 4;
+        CRC32 crc = new CRC32();
+        ByteBuffer covered = in.duplicate();
+        covered.limit(crcOffset);
+        crc.update(covered);
+        if ((int) crc.getValue() != in.getInt(crcOffset)) {
+            throw new IOException("Corrupted save file (bad checksum)");
+        }
+        in.limit(crcOffset);
+        in.position(4);
+        int version = in.get() & 0xFF;
+        // Version 1 had no level state
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported save version: " + version);
+        }
+
+        try {
+            String[] table = new String[readCount(in)];
+            for (int i = 0; i < table.length; i++) {
+                int length = readCount(in);
+                table[i] = new String(readBytes(in, length), StandardCharsets.UTF_8);
+            }
+
+            String playerName = readString(in, table);
+            int currentFloor = readVarInt(in);
+            Hero hero = readHero(in);
+
+            int itemCount = readCount(in);
+            List<Equipment> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                items.add(readEquipment(in, table));
+            }
+            int equippedCount = readCount(in);
+            Map<Equipment.EquipmentType, Equipment> equipped = new EnumMap<>(Equipment.EquipmentType.class);
+            for (int i = 0; i < equippedCount; i++) {
+                Equipment.EquipmentType slot = readEnum(in, Equipment.EquipmentType.values());
+                equipped.put(slot, readEquipment(in, table));
+            }
+            GameState state = new GameState(hero, new Inventaire(hero, items, equipped), currentFloor, playerName);
+            if (version >= 2 && in.get() != 0) {
+                Level.Position position = Level.Position.of(readVarInt(in), readVarInt(in));
+                state.setLevelState(LevelDelta.readFrom(in), position);
+            }
+            if (in.hasRemaining()) {
+                throw new IOException("Corrupted save file (" + in.remaining() + " trailing bytes)");
+            }
+            return state;
+        } catch (RuntimeException e) {
+            // Truncated data, index out of range...
+            throw new IOException("Corrupted save file", e);
+        }
+    }
+
+    private static void writeHero(Writer out, Hero hero) {
+        out.writeVarInt(hero.getType().ordinal());
+        out.writeZigZag(hero.getPV());
+        out.writeZigZag(hero.getMaxPV());
+        out.writeZigZag(hero.getXP());
+        out.writeZigZag(hero.getForce());
+        out.writeZigZag(hero.getAgility());
+        out.writeZigZag(hero.getWisdom());
+        out.writeZigZag(hero.getLevel());
+        out.writeZigZag(hero.getFloor());
+        out.writeZigZag(hero.getUnspentStatPoints());
+        out.writeVarInt(hero.getFacingDirection().ordinal());
+        out.writeZigZag(hero.getDamage());
+        out.writeZigZag(hero.getResistance());
+    }
+
+    private static Hero readHero(ByteBuffer in) {
+        Hero.HeroType type = readEnum(in, Hero.HeroType.values());
+        int pv = readZigZag(in);
+        int maxPV = readZigZag(in);
+        int xp = readZigZag(in);
+        int force = readZigZag(in);
+        int agility = readZigZag(in);
+        int wisdom = readZigZag(in);
+        int level = readZigZag(in);
+        int floor = readZigZag(in);
+        int unspentStatPoints = readZigZag(in);
+        Hero.Direction facing = readEnum(in, Hero.Direction.values());
+        int damage = readZigZag(in);
+        int resistance = readZigZag(in);
+        return new Hero(type, pv, maxPV, xp, force, agility, wisdom, level, floor,
+                unspentStatPoints, facing, damage, resistance);
+    }
+
+    private static void writeEquipment(Writer out, Equipment item,
+                                       Map<String, Integer> strings, List<String> table) {
+        out.writeZigZag(item.getId());
+        out.writeVarInt(intern(item.getName(), strings, table));
+        out.writeVarInt(intern(item.getDescription(), strings, table));
+        out.writeVarInt(item.getType().ordinal());
+        out.writeVarInt(item.getRarity().ordinal());
+        out.writeZigZag(item.getDamage());
+        out.writeZigZag(item.getPvRecovery());
+        out.writeZigZag(item.getPv());
+        out.writeZigZag(item.getDamageBonus());
+        out.writeZigZag(item.getStatBonus());
+        out.writeZigZag(item.getResistance());
+        out.writeZigZag(item.getForce());
+        out.writeZigZag(item.getAgility());
+        out.writeZigZag(item.getWisdom());
+        out.writeZigZag(item.getXp());
+        out.writeByte((item.isInInventory() ? FLAG_IN_INVENTORY : 0)
+                | (item.isEquipped() ? FLAG_EQUIPPED : 0));
+        out.writeVarInt(item.getQuantity());
+    }
+
+    private static Equipment readEquipment(ByteBuffer in, String[] table) {
+        int id = readZigZag(in);
+        String name = readString(in, table);
+        String description = readString(in, table);
+        Equipment.EquipmentType type = readEnum(in, Equipment.EquipmentType.values());
+        Equipment.Rarity rarity = readEnum(in, Equipment.Rarity.values());
+        Equipment item = new Equipment.Builder(id, name, type, rarity)
+                .description(description)
+                .damage(readZigZag(in))
+                .pvRecovery(readZigZag(in))
+                .pv(readZigZag(in))
+                .damageBonus(readZigZag(in))
+                .statBonus(readZigZag(in))
+                .resistance(readZigZag(in))
+                .force(readZigZag(in))
+                .agility(readZigZag(in))
+                .wisdom(readZigZag(in))
+                .xp(readZigZag(in))
+                .build();
+        int flags = in.get();
+        item.setInInventory((flags & FLAG_IN_INVENTORY) != 0);
+        item.setEquipped((flags & FLAG_EQUIPPED) != 0);
+        item.setQuantity(readVarInt(in));
+        return item;
+    }
+
+    private static int intern(String s, Map<String, Integer> strings, List<String> table) {
+        if (s == null) {
+            s = "";
+        }
+        Integer index = strings.get(s);
+        if (index == null) {
+            index = table.size();
+            strings.put(s, index);
+            table.add(s);
+        }
+        return index;
+    }
+
+    private static String readString(ByteBuffer in, String[] table) {
+        return table[readVarInt(in)];
+    }
+
+    private static <E extends Enum<E>> E readEnum(ByteBuffer in, E[] values) {
+        return values[readVarInt(in)];
+    }
+
+    /**
+     * Read a length or count, which cannot exceed the remaining bytes.
+     */
+    private static int readCount(ByteBuffer in) {
+        int count = readVarInt(in);
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalStateException("Invalid count: " + count);
+        }
+        return count;
+    }
+
+    private static byte[] readBytes(ByteBuffer in, int length) {
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Read an unsigned LEB128 varint (7 bits per byte, low bits first).
+     */
+    static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    static int readZigZag(ByteBuffer in) {
+        int n = readVarInt(in);
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    /**
+     * Growable byte buffer with varint writers.
+     */
+    static final class Writer {
+        private byte[] buffer;
+        private int size;
+
+        Writer(int capacity) {
+            buffer = new byte[Math.max(capacity, 16)];
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            buffer[size++] = (byte) b;
+        }
+
+        void writeInt(int v) {
+            ensure(4);
+            buffer[size++] = (byte) (v >>> 24);
+            buffer[size++] = (byte) (v >>> 16);
+            buffer[size++] = (byte) (v >>> 8);
+            buffer[size++] = (byte) v;
+        }
+
+        void writeBytes(byte[] bytes, int length) {
+            ensure(length);
+            System.arraycopy(bytes, 0, buffer, size, length);
+            size += length;
+        }
+
+        void writeVarInt(int v) {
+            ensure(5);
+            while ((v & ~0x7F) != 0) {
+                buffer[size++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buffer[size++] = (byte) v;
+        }
+
+        void writeZigZag(int v) {
+            writeVarInt((v << 1) ^ (v >> 31));
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+}
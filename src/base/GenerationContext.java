@@ -0,0 +1,97 @@
+package base;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Random source and item id allocator for generating one level.
+ * Every random choice of LevelFactory and EquipmentFactory is drawn from a
+ * context, so a floor and seed always produce the same level, items and ids,
+ * whichever thread builds it and whatever was generated before.
+ *
+ * Generation warnings (paths carved to unreachable cells) are printed
+ * unless the context is quiet, e.g. for batch sweeps.
+ *
+ * A context is meant to be used by one thread at a time. Item ids are taken
+ * from a block reserved for the floor, so items found on different floors
+ * never share an id (the inventory stacks items with equal ids). The first
+ * block is left to saves made before contexts existed, whose items were
+ * numbered from 1 by a global counter.
+ */
+public class GenerationContext {
+
+    /**
+     * Number of item ids reserved for each floor.
+     */
+    public static final int ID_BLOCK = 1_000_000;
+
+    private final int floor;
+    private final SplittableRandom random;
+    private final AtomicInteger nextId;
+    private boolean quiet;
+
+    /**
+     * Create the context for generating a floor from a seed.
+     */
+    public GenerationContext(int floor, long seed) {
+        this(floor, new SplittableRandom(seed), new AtomicInteger((floor + 1) * ID_BLOCK + 1));
+    }
+
+    private GenerationContext(int floor, SplittableRandom random, AtomicInteger nextId) {
+        this.floor = floor;
+        this.random = random;
+        this.nextId = nextId;
+    }
+
+    /**
+     * Create a child context with an independent random stream and the same
+     * id allocator. The child's stream only depends on how many values the
+     * parent drew before splitting.
+     */
+    public GenerationContext split() {
+        GenerationContext child = new GenerationContext(floor, random.split(), nextId);
+        child.quiet = quiet;
+        return child;
+    }
+
+    /**
+     * Stop printing generation warnings for this context and its children.
+     * @return this context
+     */
+    public GenerationContext quiet() {
+        quiet = true;
+        return this;
+    }
+
+    /**
+     * Print a generation warning, unless the context is quiet.
+     */
+    public void warn(String message) {
+        if (!quiet) {
+            System.out.println("Warning: " + message);
+        }
+    }
+
+    /**
+     * Allocate a new item id.
+     */
+    public int nextItemId() {
+        return nextId.getAndIncrement();
+    }
+
+    /**
+     * Random integer between 0 (inclusive) and bound (exclusive).
+     */
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    /**
+     * Random double between 0 (inclusive) and 1 (exclusive).
+     */
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    public int getFloor() { return floor; }
+}
@@ -0,0 +1,153 @@
+package base;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first flood fill over a grid of open and blocked cells.
+ * Works on flat arrays only so one instance can be reused for many fills,
+ * and an existing fill can be grown when cells are opened afterwards.
+ */
+public class GridFlood {
+
+    // Directions: up, down, left, right
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0};
+
+    private final int width;
+    private final int height;
+    private final boolean[] blocked;
+    private final boolean[] reached;
+
+    // Each cell is queued at most once per fill, so the queue never wraps
+    // and doubles as the list of reached cells in BFS order.
+    private final int[] queue;
+    private int head;
+    private int tail;
+
+    public GridFlood(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.blocked = new boolean[width * height];
+        this.reached = new boolean[width * height];
+        this.queue = new int[width * height];
+    }
+
+    /**
+     * Create a flood engine whose blocked cells are the walls of a level.
+     */
+    public static GridFlood forLevel(Level level) {
+        GridFlood flood = new GridFlood(level.getWidth(), level.getHeight());
+        level.forEachWall((x, y) -> flood.setBlocked(x, y, true));
+        return flood;
+    }
+
+    /**
+     * Mark a cell as blocked or open. Does not update an existing fill.
+     */
+    public void setBlocked(int x, int y, boolean isBlocked) {
+        blocked[y * width + x] = isBlocked;
+    }
+
+    /**
+     * Check if a cell is blocked. Cells outside the grid count as blocked.
+     */
+    public boolean isBlocked(int x, int y) {
+        if (!contains(x, y)) {
+            return true;
+        }
+        return blocked[y * width + x];
+    }
+
+    /**
+     * Flood from a starting cell, discarding any previous fill.
+     * The start cell is always reached, even if it is blocked.
+     * @return number of reached cells
+     */
+    public int flood(int startX, int startY) {
+        Arrays.fill(reached, false);
+        head = 0;
+        tail = 0;
+        enqueue(startY * width + startX);
+        expand();
+        return tail;
+    }
+
+    /**
+     * Open a blocked cell and grow the current fill through it if it
+     * touches a reached cell. Only the newly connected area is visited.
+     */
+    public void open(int x, int y) {
+        int index = y * width + x;
+        blocked[index] = false;
+        if (reached[index]) {
+            return;
+        }
+        for (int dir = 0; dir < 4; dir++) {
+            int nx = x + DX[dir];
+            int ny = y + DY[dir];
+            if (contains(nx, ny) && reached[ny * width + nx]) {
+                enqueue(index);
+                expand();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Check if a cell was reached by the current fill.
+     */
+    public boolean isReached(int x, int y) {
+        return contains(x, y) && reached[y * width + x];
+    }
+
+    /**
+     * Number of cells reached by the current fill.
+     */
+    public int getReachedCount() {
+        return tail;
+    }
+
+    /**
+     * X coordinate of the i-th reached cell, in BFS order.
+     */
+    public int getReachedX(int i) {
+        return queue[i] % width;
+    }
+
+    /**
+     * Y coordinate of the i-th reached cell, in BFS order.
+     */
+    public int getReachedY(int i) {
+        return queue[i] / width;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    private boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    private void enqueue(int index) {
+        reached[index] = true;
+        queue[tail++] = index;
+    }
+
+    private void expand() {
+        while (head < tail) {
+            int current = queue[head++];
+            int cx = current % width;
+            int cy = current / width;
+            for (int dir = 0; dir < 4; dir++) {
+                int nx = cx + DX[dir];
+                int ny = cy + DY[dir];
+                if (contains(nx, ny)) {
+                    int index = ny * width + nx;
+                    if (!blocked[index] && !reached[index]) {
+                        enqueue(index);
+                    }
+                }
+            }
+        }
+    }
+}
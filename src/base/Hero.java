@@ -67,6 +67,27 @@ public class Hero implements Serializable {
         this.facingDirection = Direction.FRONT;  // Default facing direction
     }
     
+    /**
+     * Restore a hero from saved values (see GameStateCodec).
+     */
+    Hero(HeroType type, int pv, int maxPV, int xp, int force, int agility, int wisdom,
+         int level, int floor, int unspentStatPoints, Direction facingDirection,
+         int damage, int resistance) {
+        this.type = type;
+        this.pv = pv;
+        this.maxPV = maxPV;
+        this.xp = xp;
+        this.force = force;
+        this.agility = agility;
+        this.wisdom = wisdom;
+        this.level = level;
+        this.floor = floor;
+        this.unspentStatPoints = unspentStatPoints;
+        this.facingDirection = facingDirection;
+        this.damage = damage;
+        this.resistance = resistance;
+    }
+    
     /**
      * Add experience and handle level ups.
      */
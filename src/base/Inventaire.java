@@ -24,6 +24,15 @@ public class Inventaire implements Serializable {
         this.equippedItems = new HashMap<>();
     }
     
+    /**
+     * Restore an inventory from saved items (see GameStateCodec).
+     */
+    Inventaire(Hero hero, List<Equipment> inventory, Map<Equipment.EquipmentType, Equipment> equippedItems) {
+        this.hero = hero;
+        this.inventory = new ArrayList<>(inventory);
+        this.equippedItems = new HashMap<>(equippedItems);
+    }
+    
     /**
      * Add an item to the inventory.
      * @return true if successfully added, false if inventory is full
@@ -10,89 +10,287 @@ public class Level implements Serializable {
     
     private static final long serialVersionUID = 1L;
     
+    // Tile kinds returned by tileAt, in drawing priority order
+    public static final int TILE_OUTSIDE = -1;
+    public static final int TILE_FLOOR = 0;
+    public static final int TILE_WALL = 1;
+    public static final int TILE_CHEST = 2;
+    public static final int TILE_MOB = 3;
+    public static final int TILE_EXIT = 4;
+    
+    /**
+     * Side of the square chunks tiles are stored in.
+     */
+    public static final int CHUNK_SIZE = 32;
+    private static final int CHUNK_SHIFT = 5;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    
     private final int floorNumber;
-    private final Set<Position> walls;
-    private final Map<Position, Chest> chests;
-    private final Map<Position, Mob> mobs;
+    private final int width;
+    private final int height;
+    private final int chunksX;
+    private final Chunk[] chunks;
+    private final MobIndex mobIndex;
+    private int allocatedChunks;
+    private int wallCount;
+    private int chestCount;
+    private int mobCount;
+    private int bossCount;
     private final Position exitPosition;
     private final Position spawnPosition;
     
+    /**
+     * Create a level the size of the game board from generated content.
+     */
     public Level(int floorNumber, Set<Position> walls, Map<Position, Chest> chests,
                  Map<Position, Mob> mobs, Position exitPosition, Position spawnPosition) {
+        this(floorNumber, Constants.BOARD_WIDTH, Constants.BOARD_HEIGHT, exitPosition, spawnPosition);
+        
+        for (Position pos : walls) {
+            setWall(pos.getX(), pos.getY(), true);
+        }
+        for (Map.Entry<Position, Chest> entry : chests.entrySet()) {
+            placeChest(entry.getKey().getX(), entry.getKey().getY(), entry.getValue());
+        }
+        for (Map.Entry<Position, Mob> entry : mobs.entrySet()) {
+            placeMob(entry.getKey().getX(), entry.getKey().getY(), entry.getValue());
+        }
+    }
+    
+    /**
+     * Create an empty level of any size, to be filled with
+     * {@link #setWall}, {@link #placeChest} and {@link #placeMob}.
+     * Tiles are stored in chunks of CHUNK_SIZE x CHUNK_SIZE that are only
+     * allocated once something is placed in them, so memory follows the
+     * occupied area rather than the level size.
+     */
+    public Level(int floorNumber, int width, int height, Position exitPosition, Position spawnPosition) {
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid level size: " + width + "x" + height);
+        }
         this.floorNumber = floorNumber;
-        this.walls = walls;
-        this.chests = chests;
-        this.mobs = mobs;
+        this.width = width;
+        this.height = height;
+        this.chunksX = (width + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+        this.chunks = new Chunk[chunksX * ((height + CHUNK_SIZE - 1) >> CHUNK_SHIFT)];
+        this.mobIndex = new MobIndex(width, height);
         this.exitPosition = exitPosition;
         this.spawnPosition = spawnPosition;
     }
     
+    private boolean isOnBoard(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+    
+    private void requireOnBoard(int x, int y) {
+        if (!isOnBoard(x, y)) {
+            throw new IllegalArgumentException("Position off the board: " + Position.of(x, y));
+        }
+    }
+    
+    /**
+     * Chunk holding a tile, or null if nothing was ever placed there.
+     */
+    private Chunk chunkAt(int x, int y) {
+        return chunks[(y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT)];
+    }
+    
+    private Chunk chunkForWrite(int x, int y) {
+        int index = (y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT);
+        Chunk chunk = chunks[index];
+        if (chunk == null) {
+            chunk = new Chunk();
+            chunks[index] = chunk;
+            allocatedChunks++;
+        }
+        return chunk;
+    }
+    
+    /**
+     * Drop a chunk once it holds nothing any more.
+     */
+    private void releaseIfEmpty(int x, int y, Chunk chunk) {
+        if (chunk.isEmpty()) {
+            chunks[(y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT)] = null;
+            allocatedChunks--;
+        }
+    }
+    
+    /**
+     * Index of a tile inside its chunk.
+     */
+    private static int cellOf(int x, int y) {
+        return ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+    }
+    
     /**
      * Check if a position has a wall.
      */
     public boolean hasWall(int x, int y) {
-        return walls.contains(new Position(x, y));
+        if (!isOnBoard(x, y)) {
+            return false;
+        }
+        Chunk chunk = chunkAt(x, y);
+        return chunk != null && chunk.hasWall(cellOf(x, y));
+    }
+    
+    /**
+     * Add or remove a wall.
+     */
+    public void setWall(int x, int y, boolean wall) {
+        requireOnBoard(x, y);
+        if (wall == hasWall(x, y)) {
+            return;
+        }
+        Chunk chunk = chunkForWrite(x, y);
+        int cell = cellOf(x, y);
+        if (wall) {
+            chunk.wallBits[cell >>> 6] |= 1L << cell;
+            chunk.walls++;
+            wallCount++;
+        } else {
+            chunk.wallBits[cell >>> 6] &= ~(1L << cell);
+            chunk.walls--;
+            wallCount--;
+            releaseIfEmpty(x, y, chunk);
+        }
     }
     
     /**
      * Check if a position has a chest.
      */
     public boolean hasChest(int x, int y) {
-        return chests.containsKey(new Position(x, y));
+        return getChest(x, y) != null;
     }
     
     /**
      * Get chest at position.
      */
     public Chest getChest(int x, int y) {
-        return chests.get(new Position(x, y));
+        if (!isOnBoard(x, y)) {
+            return null;
+        }
+        Chunk chunk = chunkAt(x, y);
+        if (chunk == null || chunk.chests == null) {
+            return null;
+        }
+        return chunk.chests[cellOf(x, y)];
+    }
+    
+    /**
+     * Put a chest at a position, replacing any chest already there.
+     */
+    public void placeChest(int x, int y, Chest chest) {
+        requireOnBoard(x, y);
+        removeChest(x, y);
+        Chunk chunk = chunkForWrite(x, y);
+        if (chunk.chests == null) {
+            chunk.chests = new Chest[CHUNK_SIZE * CHUNK_SIZE];
+        }
+        chunk.chests[cellOf(x, y)] = chest;
+        chunk.chestCount++;
+        chestCount++;
     }
     
     /**
      * Remove chest at position (after opening).
      */
     public void removeChest(int x, int y) {
-        chests.remove(new Position(x, y));
+        if (hasChest(x, y)) {
+            Chunk chunk = chunkAt(x, y);
+            chunk.chests[cellOf(x, y)] = null;
+            chunk.chestCount--;
+            chestCount--;
+            releaseIfEmpty(x, y, chunk);
+        }
     }
     
     /**
      * Check if a position has a mob.
      */
     public boolean hasMob(int x, int y) {
-        return mobs.containsKey(new Position(x, y));
+        return getMob(x, y) != null;
     }
     
     /**
      * Get mob at position.
      */
     public Mob getMob(int x, int y) {
-        return mobs.get(new Position(x, y));
+        if (!isOnBoard(x, y)) {
+            return null;
+        }
+        Chunk chunk = chunkAt(x, y);
+        if (chunk == null || chunk.mobs == null) {
+            return null;
+        }
+        return chunk.mobs[cellOf(x, y)];
+    }
+    
+    /**
+     * Put a mob at a position, replacing any mob already there.
+     */
+    public void placeMob(int x, int y, Mob mob) {
+        requireOnBoard(x, y);
+        removeMob(x, y);
+        Chunk chunk = chunkForWrite(x, y);
+        if (chunk.mobs == null) {
+            chunk.mobs = new Mob[CHUNK_SIZE * CHUNK_SIZE];
+        }
+        chunk.mobs[cellOf(x, y)] = mob;
+        chunk.mobCount++;
+        mobIndex.add(keyOf(x, y), mob.getType());
+        mobCount++;
+        if (mob.getType() == Mob.MobType.BOSS) {
+            bossCount++;
+        }
     }
     
     /**
      * Remove mob at position (after defeat).
      */
     public void removeMob(int x, int y) {
-        mobs.remove(new Position(x, y));
+        Mob mob = getMob(x, y);
+        if (mob != null) {
+            Chunk chunk = chunkAt(x, y);
+            chunk.mobs[cellOf(x, y)] = null;
+            chunk.mobCount--;
+            mobIndex.remove(keyOf(x, y), mob.getType());
+            mobCount--;
+            if (mob.getType() == Mob.MobType.BOSS) {
+                bossCount--;
+            }
+            releaseIfEmpty(x, y, chunk);
+        }
+    }
+    
+    /**
+     * Find a mob within a Manhattan distance of a tile, using the mob index.
+     * @param type the mob type to look for, or null for any type
+     * @return the packed key of a matching mob, or -1 if there is none
+     */
+    public int findMobWithin(int x, int y, int maxDistance, Mob.MobType type) {
+        return mobIndex.findWithin(this, x, y, maxDistance, type);
+    }
+    
+    /**
+     * Visit every mob within a Euclidean radius of a tile, using the mob index.
+     */
+    public void forEachMobInRadius(int x, int y, int radius, MobConsumer action) {
+        mobIndex.forEachWithinRadius(this, x, y, radius, action);
     }
     
     /**
      * Check if position is the exit.
      */
     public boolean isExit(int x, int y) {
-        return exitPosition.equals(new Position(x, y));
+        return exitPosition.getX() == x && exitPosition.getY() == y;
     }
     
     /**
      * Check if there is a boss alive on this level.
      */
     public boolean hasBossAlive() {
-        for (Mob mob : mobs.values()) {
-            if (mob.getType() == Mob.MobType.BOSS) {
-                return true;
-            }
-        }
-        return false;
+        return bossCount > 0;
     }
     
     /**
@@ -100,7 +298,7 @@ public class Level implements Serializable {
      */
     public boolean isValidMove(int x, int y) {
         // Check bounds
-        if (x < 0 || x >= Constants.BOARD_WIDTH || y < 0 || y >= Constants.BOARD_HEIGHT) {
+        if (!isOnBoard(x, y)) {
             return false;
         }
         
@@ -117,26 +315,273 @@ public class Level implements Serializable {
         return true;
     }
     
+    /**
+     * Get the kind of tile at a position (one of the TILE_ constants).
+     * The exit is reported over a mob or chest, a mob over a chest.
+     */
+    public int tileAt(int x, int y) {
+        if (!isOnBoard(x, y)) {
+            return TILE_OUTSIDE;
+        }
+        if (isExit(x, y)) {
+            return TILE_EXIT;
+        }
+        Chunk chunk = chunkAt(x, y);
+        if (chunk == null) {
+            return TILE_FLOOR;
+        }
+        int cell = cellOf(x, y);
+        if (chunk.mobs != null && chunk.mobs[cell] != null) {
+            return TILE_MOB;
+        }
+        if (chunk.chests != null && chunk.chests[cell] != null) {
+            return TILE_CHEST;
+        }
+        if (chunk.hasWall(cell)) {
+            return TILE_WALL;
+        }
+        return TILE_FLOOR;
+    }
+    
+    /**
+     * Pack a position into a single int key.
+     */
+    public int keyOf(int x, int y) {
+        return y * width + x;
+    }
+    
+    /**
+     * X coordinate of a packed key.
+     */
+    public int keyX(int key) {
+        return key % width;
+    }
+    
+    /**
+     * Y coordinate of a packed key.
+     */
+    public int keyY(int key) {
+        return key / width;
+    }
+    
+    /**
+     * Get mob at a packed key, or null.
+     */
+    public Mob mobAt(int key) {
+        if (key < 0) {
+            return null;
+        }
+        return getMob(key % width, key / width);
+    }
+    
+    /**
+     * Get chest at a packed key, or null.
+     */
+    public Chest chestAt(int key) {
+        if (key < 0) {
+            return null;
+        }
+        return getChest(key % width, key / width);
+    }
+    
+    /**
+     * Visit every wall without building a set of positions.
+     */
+    public void forEachWall(IntBinaryConsumer action) {
+        for (int c = 0; c < chunks.length; c++) {
+            Chunk chunk = chunks[c];
+            if (chunk == null || chunk.walls == 0) {
+                continue;
+            }
+            int baseX = (c % chunksX) << CHUNK_SHIFT;
+            int baseY = (c / chunksX) << CHUNK_SHIFT;
+            for (int word = 0; word < chunk.wallBits.length; word++) {
+                long bits = chunk.wallBits[word];
+                while (bits != 0) {
+                    int cell = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    action.accept(baseX + (cell & CHUNK_MASK), baseY + (cell >>> CHUNK_SHIFT));
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Visit every chest without copying the chest map.
+     */
+    public void forEachChest(ChestConsumer action) {
+        for (int c = 0; c < chunks.length; c++) {
+            Chunk chunk = chunks[c];
+            if (chunk == null || chunk.chestCount == 0) {
+                continue;
+            }
+            int baseX = (c % chunksX) << CHUNK_SHIFT;
+            int baseY = (c / chunksX) << CHUNK_SHIFT;
+            for (int cell = 0; cell < chunk.chests.length; cell++) {
+                if (chunk.chests[cell] != null) {
+                    action.accept(baseX + (cell & CHUNK_MASK), baseY + (cell >>> CHUNK_SHIFT), chunk.chests[cell]);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Visit every mob without copying the mob map.
+     */
+    public void forEachMob(MobConsumer action) {
+        for (int c = 0; c < chunks.length; c++) {
+            Chunk chunk = chunks[c];
+            if (chunk == null || chunk.mobCount == 0) {
+                continue;
+            }
+            int baseX = (c % chunksX) << CHUNK_SHIFT;
+            int baseY = (c / chunksX) << CHUNK_SHIFT;
+            for (int cell = 0; cell < chunk.mobs.length; cell++) {
+                if (chunk.mobs[cell] != null) {
+                    action.accept(baseX + (cell & CHUNK_MASK), baseY + (cell >>> CHUNK_SHIFT), chunk.mobs[cell]);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Count the chests that have not been opened yet.
+     */
+    public int countUnopenedChests() {
+        int[] count = new int[1];
+        forEachChest((x, y, chest) -> {
+            if (!chest.isOpened()) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+    
     // Getters
     public int getFloorNumber() { return floorNumber; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
     public Position getSpawnPosition() { return spawnPosition; }
     public Position getExitPosition() { return exitPosition; }
-    public Set<Position> getWalls() { return new HashSet<>(walls); }
-    public Map<Position, Chest> getChests() { return new HashMap<>(chests); }
-    public Map<Position, Mob> getMobs() { return new HashMap<>(mobs); }
+    public int getWallCount() { return wallCount; }
+    public int getChestCount() { return chestCount; }
+    public int getMobCount() { return mobCount; }
+    public int getAllocatedChunkCount() { return allocatedChunks; }
+    
+    /**
+     * Snapshot of the wall positions, built from the wall chunks.
+     */
+    public Set<Position> getWalls() {
+        Set<Position> result = new HashSet<>(wallCount * 2);
+        forEachWall((x, y) -> result.add(Position.of(x, y)));
+        return result;
+    }
+    
+    /**
+     * Snapshot of the chests keyed by position, built from the chest chunks.
+     */
+    public Map<Position, Chest> getChests() {
+        Map<Position, Chest> result = new HashMap<>(chestCount * 2);
+        forEachChest((x, y, chest) -> result.put(Position.of(x, y), chest));
+        return result;
+    }
+    
+    /**
+     * Snapshot of the mobs keyed by position, built from the mob chunks.
+     */
+    public Map<Position, Mob> getMobs() {
+        Map<Position, Mob> result = new HashMap<>(mobCount * 2);
+        forEachMob((x, y, mob) -> result.put(Position.of(x, y), mob));
+        return result;
+    }
+    
+    /**
+     * CHUNK_SIZE x CHUNK_SIZE block of tiles. Walls are a bit set; the chest
+     * and mob arrays are only allocated when the chunk gets one.
+     */
+    private static final class Chunk implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        final long[] wallBits = new long[CHUNK_SIZE * CHUNK_SIZE / 64];
+        Chest[] chests;
+        Mob[] mobs;
+        int walls;
+        int chestCount;
+        int mobCount;
+        
+        boolean hasWall(int cell) {
+            return (wallBits[cell >>> 6] & (1L << cell)) != 0;
+        }
+        
+        boolean isEmpty() {
+            return walls == 0 && chestCount == 0 && mobCount == 0;
+        }
+    }
+    
+    /**
+     * Callback receiving board coordinates.
+     */
+    public interface IntBinaryConsumer {
+        void accept(int x, int y);
+    }
+    
+    /**
+     * Callback receiving a chest and its coordinates.
+     */
+    public interface ChestConsumer {
+        void accept(int x, int y, Chest chest);
+    }
+    
+    /**
+     * Callback receiving a mob and its coordinates.
+     */
+    public interface MobConsumer {
+        void accept(int x, int y, Mob mob);
+    }
     
     /**
      * Position on the game board.
+     * On-board positions are interned: use {@link #of(int, int)} to get them.
      */
     public static class Position implements Serializable {
         private static final long serialVersionUID = 1L;
         
+        private static final Position[] CACHE = new Position[Constants.BOARD_WIDTH * Constants.BOARD_HEIGHT];
+        
+        static {
+            for (int y = 0; y < Constants.BOARD_HEIGHT; y++) {
+                for (int x = 0; x < Constants.BOARD_WIDTH; x++) {
+                    CACHE[y * Constants.BOARD_WIDTH + x] = new Position(x, y);
+                }
+            }
+        }
+        
         private final int x;
         private final int y;
+        private final int hash;
         
-        public Position(int x, int y) {
+        private Position(int x, int y) {
             this.x = x;
             this.y = y;
+            this.hash = 31 * x + y;
+        }
+        
+        /**
+         * Get the position for the given coordinates.
+         * Returns the shared instance when on the board, a new one otherwise.
+         */
+        public static Position of(int x, int y) {
+            if (x >= 0 && x < Constants.BOARD_WIDTH && y >= 0 && y < Constants.BOARD_HEIGHT) {
+                return CACHE[y * Constants.BOARD_WIDTH + x];
+            }
+            return new Position(x, y);
+        }
+        
+        /**
+         * Replace deserialized positions with the shared instance.
+         */
+        private Object readResolve() {
+            return of(x, y);
         }
         
         public int getX() { return x; }
@@ -152,7 +597,7 @@ public class Level implements Serializable {
         
         @Override
         public int hashCode() {
-            return Objects.hash(x, y);
+            return hash;
         }
         
         @Override
@@ -0,0 +1,174 @@
+package base;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Command-line tool that generates many levels in parallel and prints
+ * aggregate statistics, to tune the generation constants of LevelFactory.
+ *
+ * Usage: LevelBatchGenerator [levelsPerFloor] [firstFloor] [lastFloor] [baseSeed]
+ *
+ * Every level gets its own GenerationContext seeded from the base seed and
+ * its index, so a sweep is reproducible whatever the number of threads.
+ */
+public class LevelBatchGenerator {
+
+    // Below this many levels a task generates them itself instead of splitting
+    private static final int SPLIT_THRESHOLD = 16;
+
+    private final int firstFloor;
+    private final int floorCount;
+    private final int levelsPerFloor;
+    private final long baseSeed;
+
+    // Results, indexed by level number (floor-major)
+    private final int[] reachable;
+    private final int[] mobs;
+    private final int[] chests;
+    private final long[] nanos;
+
+    public LevelBatchGenerator(int firstFloor, int lastFloor, int levelsPerFloor, long baseSeed) {
+        if (firstFloor < 0 || lastFloor >= Constants.MAX_FLOORS || firstFloor > lastFloor) {
+            throw new IllegalArgumentException("Invalid floor range: " + firstFloor + ".." + lastFloor);
+        }
+        if (levelsPerFloor <= 0) {
+            throw new IllegalArgumentException("Invalid level count: " + levelsPerFloor);
+        }
+        this.firstFloor = firstFloor;
+        this.floorCount = lastFloor - firstFloor + 1;
+        this.levelsPerFloor = levelsPerFloor;
+        this.baseSeed = baseSeed;
+        int total = floorCount * levelsPerFloor;
+        this.reachable = new int[total];
+        this.mobs = new int[total];
+        this.chests = new int[total];
+        this.nanos = new long[total];
+    }
+
+    public static void main(String[] args) {
+        int levelsPerFloor = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int firstFloor = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int lastFloor = args.length > 2 ? Integer.parseInt(args[2]) : Constants.MAX_FLOORS - 1;
+        long baseSeed = args.length > 3 ? Long.parseLong(args[3]) : 0L;
+
+        LevelBatchGenerator batch = new LevelBatchGenerator(firstFloor, lastFloor, levelsPerFloor, baseSeed);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        long start = System.nanoTime();
+        batch.run(pool);
+        long elapsed = System.nanoTime() - start;
+
+        PrintStream out = System.out;
+        out.println("Generated " + batch.nanos.length + " levels on " + pool.getParallelism()
+                + " threads in " + elapsed / 1_000_000 + " ms\n");
+        batch.printReport(out);
+    }
+
+    /**
+     * Generate every level of the batch on a fork-join pool.
+     */
+    public void run(ForkJoinPool pool) {
+        pool.invoke(new GenerateTask(0, nanos.length));
+    }
+
+    /**
+     * Print per-floor statistics followed by overall generation times.
+     */
+    public void printReport(PrintStream out) {
+        out.println(String.format("%-6s %-22s %-18s %-18s %s",
+                "Floor", "Reachable min/avg/max", "Mobs min/avg/max", "Chests min/avg/max",
+                "Time p50/p90/p99/max (us)"));
+        for (int f = 0; f < floorCount; f++) {
+            int from = f * levelsPerFloor;
+            int to = from + levelsPerFloor;
+            out.println(String.format("%-6d %-22s %-18s %-18s %s",
+                    firstFloor + f,
+                    summary(reachable, from, to),
+                    summary(mobs, from, to),
+                    summary(chests, from, to),
+                    percentiles(nanos, from, to)));
+        }
+        out.println(String.format("%-6s %-22s %-18s %-18s %s",
+                "All",
+                summary(reachable, 0, nanos.length),
+                summary(mobs, 0, nanos.length),
+                summary(chests, 0, nanos.length),
+                percentiles(nanos, 0, nanos.length)));
+    }
+
+    /**
+     * Generate one level and record its statistics.
+     */
+    private void generate(int index) {
+        int floor = firstFloor + index / levelsPerFloor;
+        // Generation warns for each carved path; keep the report readable
+        GenerationContext context = new GenerationContext(floor, baseSeed + index * 0x9E3779B97F4A7C15L).quiet();
+
+        long start = System.nanoTime();
+        Level level = LevelFactory.createLevel(floor, context);
+        nanos[index] = System.nanoTime() - start;
+
+        Level.Position spawn = level.getSpawnPosition();
+        reachable[index] = GridFlood.forLevel(level).flood(spawn.getX(), spawn.getY());
+        mobs[index] = level.getMobCount();
+        chests[index] = level.getChestCount();
+    }
+
+    private static String summary(int[] values, int from, int to) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+            sum += values[i];
+        }
+        return String.format("%d/%.1f/%d", min, (double) sum / (to - from), max);
+    }
+
+    private static String percentiles(long[] values, int from, int to) {
+        long[] sorted = Arrays.copyOfRange(values, from, to);
+        Arrays.sort(sorted);
+        return percentile(sorted, 50) + "/" + percentile(sorted, 90) + "/"
+                + percentile(sorted, 99) + "/" + sorted[sorted.length - 1] / 1000;
+    }
+
+    /**
+     * Nearest-rank percentile of sorted nanosecond values, in microseconds.
+     */
+    private static long percentile(long[] sorted, int p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1000;
+    }
+
+    /**
+     * Generates a range of level indices, splitting it in halves until
+     * it is small enough.
+     */
+    private class GenerateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        GenerateTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    generate(i);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new GenerateTask(from, mid), new GenerateTask(mid, to));
+        }
+    }
+}
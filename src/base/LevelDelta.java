@@ -0,0 +1,216 @@
+package base;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * State of a level in play, stored as the differences from the level its
+ * seed generates: mobs killed, mobs wounded, chests opened and walls
+ * changed. Generation is deterministic, so regenerating the floor and
+ * applying the delta restores it exactly, for a few bytes.
+ *
+ * Mobs never move, so they are referred to by their index among the mobs
+ * of the freshly generated level, in cell order.
+ */
+public final class LevelDelta implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int floor;
+    private final long seed;
+    private final int[] removedMobs;   // mob indices, ascending
+    private final int[] damagedMobs;   // mob indices, ascending
+    private final int[] damagedMobPV;  // remaining PV of each damaged mob
+    private final int[] openedChests;  // chest ids, ascending
+    private final int[] changedWalls;  // cell keys whose wall was added or removed, ascending
+
+    LevelDelta(int floor, long seed, int[] removedMobs, int[] damagedMobs, int[] damagedMobPV,
+               int[] openedChests, int[] changedWalls) {
+        this.floor = floor;
+        this.seed = seed;
+        this.removedMobs = removedMobs;
+        this.damagedMobs = damagedMobs;
+        this.damagedMobPV = damagedMobPV;
+        this.openedChests = openedChests;
+        this.changedWalls = changedWalls;
+    }
+
+    /**
+     * What a level looked like when it was generated: the cells of its mobs
+     * and its walls. Taken when the level is loaded, and compared with the
+     * level in play to capture a delta.
+     */
+    public static final class Baseline {
+        private final int[] mobKeys;
+        private final BitSet walls;
+
+        private Baseline(int[] mobKeys, BitSet walls) {
+            this.mobKeys = mobKeys;
+            this.walls = walls;
+        }
+
+        /**
+         * Record a level as generated, before anything changed in it.
+         */
+        public static Baseline of(Level level) {
+            return new Baseline(mobKeys(level), walls(level));
+        }
+    }
+
+    /**
+     * Capture the changes made to a level since its baseline.
+     * @param seed the seed the level was generated with
+     */
+    public static LevelDelta capture(Level level, long seed, Baseline baseline) {
+        int[] mobKeys = baseline.mobKeys;
+        IntList removed = new IntList();
+        IntList damaged = new IntList();
+        IntList damagedPV = new IntList();
+        for (int i = 0; i < mobKeys.length; i++) {
+            Mob mob = level.mobAt(mobKeys[i]);
+            // A mob killed by the action in progress may still be on the level
+            if (mob == null || !mob.isAlive()) {
+                removed.add(i);
+            } else if (mob.getPV() != mob.getMaxPV()) {
+                damaged.add(i);
+                damagedPV.add(mob.getPV());
+            }
+        }
+
+        IntList opened = new IntList();
+        level.forEachChest((x, y, chest) -> {
+            if (chest.isOpened()) {
+                opened.add(chest.getId());
+            }
+        });
+
+        BitSet walls = walls(level);
+        walls.xor(baseline.walls);
+
+        int[] openedChests = opened.toArray();
+        Arrays.sort(openedChests);
+        return new LevelDelta(level.getFloorNumber(), seed, removed.toArray(), damaged.toArray(),
+                damagedPV.toArray(), openedChests, walls.stream().toArray());
+    }
+
+    /**
+     * Apply the delta to a level freshly generated from the same floor and
+     * seed.
+     */
+    public void applyTo(Level level) {
+        int[] mobKeys = mobKeys(level);
+        for (int i = 0; i < damagedMobs.length; i++) {
+            level.mobAt(mobKeys[damagedMobs[i]]).setPV(damagedMobPV[i]);
+        }
+        for (int index : removedMobs) {
+            int key = mobKeys[index];
+            level.removeMob(level.keyX(key), level.keyY(key));
+        }
+        if (openedChests.length > 0) {
+            level.forEachChest((x, y, chest) -> {
+                if (Arrays.binarySearch(openedChests, chest.getId()) >= 0) {
+                    chest.open();
+                }
+            });
+        }
+        for (int key : changedWalls) {
+            int x = level.keyX(key);
+            int y = level.keyY(key);
+            level.setWall(x, y, !level.hasWall(x, y));
+        }
+    }
+
+    private static int[] mobKeys(Level level) {
+        IntList keys = new IntList();
+        level.forEachMob((x, y, mob) -> keys.add(level.keyOf(x, y)));
+        int[] result = keys.toArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static BitSet walls(Level level) {
+        BitSet walls = new BitSet(level.getWidth() * level.getHeight());
+        level.forEachWall((x, y) -> walls.set(level.keyOf(x, y)));
+        return walls;
+    }
+
+    /**
+     * Write the delta in the GameStateCodec format. Ascending lists are
+     * written as gaps, which keeps their varints small.
+     */
+    void writeTo(GameStateCodec.Writer out) {
+        out.writeVarInt(floor);
+        out.writeInt((int) (seed >>> 32));
+        out.writeInt((int) seed);
+        writeAscending(out, removedMobs);
+        writeAscending(out, damagedMobs);
+        for (int pv : damagedMobPV) {
+            out.writeZigZag(pv);
+        }
+        writeAscending(out, openedChests);
+        writeAscending(out, changedWalls);
+    }
+
+    static LevelDelta readFrom(ByteBuffer in) {
+        int floor = GameStateCodec.readVarInt(in);
+        long seed = in.getLong();
+        int[] removedMobs = readAscending(in);
+        int[] damagedMobs = readAscending(in);
+        int[] damagedMobPV = new int[damagedMobs.length];
+        for (int i = 0; i < damagedMobPV.length; i++) {
+            damagedMobPV[i] = GameStateCodec.readZigZag(in);
+        }
+        int[] openedChests = readAscending(in);
+        int[] changedWalls = readAscending(in);
+        return new LevelDelta(floor, seed, removedMobs, damagedMobs, damagedMobPV, openedChests, changedWalls);
+    }
+
+    private static void writeAscending(GameStateCodec.Writer out, int[] values) {
+        out.writeVarInt(values.length);
+        int previous = 0;
+        for (int value : values) {
+            out.writeZigZag(value - previous);
+            previous = value;
+        }
+    }
+
+    private static int[] readAscending(ByteBuffer in) {
+        int count = GameStateCodec.readVarInt(in);
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalStateException("Invalid count: " + count);
+        }
+        int[] values = new int[count];
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += GameStateCodec.readZigZag(in);
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    public int getFloor() { return floor; }
+    public long getSeed() { return seed; }
+    public int getRemovedMobCount() { return removedMobs.length; }
+    public int getOpenedChestCount() { return openedChests.length; }
+
+    /**
+     * Growable int array, to collect values from the level visitors.
+     */
+    private static final class IntList {
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
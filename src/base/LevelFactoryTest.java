@@ -37,28 +37,26 @@ public class LevelFactoryTest {
         }
         
         // Count chests and verify they're not walls
-        int chestCount = 0;
-        for (Level.Position chestPos : level.getChests().keySet()) {
-            chestCount++;
-            if (level.hasWall(chestPos.getX(), chestPos.getY())) {
-                System.out.println("  ERROR: Chest at " + chestPos + " is a wall!");
+        level.forEachChest((x, y, chest) -> {
+            if (level.hasWall(x, y)) {
+                System.out.println("  ERROR: Chest at (" + x + ", " + y + ") is a wall!");
             }
-        }
-        System.out.println("  Chests: " + chestCount);
+        });
+        System.out.println("  Chests: " + level.getChestCount());
         
         // Count mobs
-        int mobCount = level.getMobs().size();
+        int mobCount = level.getMobCount();
         System.out.println("  Mobs: " + mobCount);
         
         // Count walls
-        int wallCount = level.getWalls().size();
+        int wallCount = level.getWallCount();
         System.out.println("  Walls: " + wallCount);
         
         // Calculate reachable cells
         int reachableCount = countReachableCells(level);
         System.out.println("  Reachable cells: " + reachableCount);
         
-        int totalCells = Constants.BOARD_WIDTH * Constants.BOARD_HEIGHT;
+        int totalCells = level.getWidth() * level.getHeight();
         int unreachableCells = totalCells - reachableCount - wallCount;
         
         if (unreachableCells > 0) {
@@ -74,33 +72,7 @@ public class LevelFactoryTest {
      * Count reachable cells using flood fill from spawn.
      */
     private static int countReachableCells(Level level) {
-        java.util.Set<Level.Position> visited = new java.util.HashSet<>();
-        java.util.Queue<Level.Position> queue = new java.util.LinkedList<>();
-        
         Level.Position spawn = level.getSpawnPosition();
-        queue.add(spawn);
-        visited.add(spawn);
-        
-        int[][] directions = {{0, -1}, {0, 1}, {-1, 0}, {1, 0}};
-        
-        while (!queue.isEmpty()) {
-            Level.Position current = queue.poll();
-            
-            for (int[] dir : directions) {
-                int newX = current.getX() + dir[0];
-                int newY = current.getY() + dir[1];
-                Level.Position neighbor = new Level.Position(newX, newY);
-                
-                if (newX >= 0 && newX < Constants.BOARD_WIDTH && 
-                    newY >= 0 && newY < Constants.BOARD_HEIGHT &&
-                    !level.hasWall(newX, newY) && 
-                    !visited.contains(neighbor)) {
-                    visited.add(neighbor);
-                    queue.add(neighbor);
-                }
-            }
-        }
-        
-        return visited.size();
+        return GridFlood.forLevel(level).flood(spawn.getX(), spawn.getY());
     }
 }
@@ -0,0 +1,147 @@
+package base;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates upcoming levels on a background thread.
+ * Generated levels are kept in a small least-recently-used cache keyed by
+ * floor and seed, so stepping on the exit only has to pick up a level that
+ * was built while the previous floor was being played.
+ * Each level is generated from its own GenerationContext, so a level built
+ * here and one built on the game thread (e.g. a saved floor being restored)
+ * share no state. One worker thread is enough: the next floor is needed at
+ * most once per floor played.
+ */
+public class LevelPrefetcher {
+
+    /**
+     * Maximum number of generated (or in-progress) levels kept in the cache.
+     */
+    public static final int MAX_CACHED_LEVELS = 3;
+
+    private final ExecutorService executor;
+    private final Map<Key, Future<Level>> cache;
+
+    public LevelPrefetcher() {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "level-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cache = new LinkedHashMap<>(MAX_CACHED_LEVELS * 2, 0.75f, true);
+    }
+
+    /**
+     * Start generating a floor in the background if it is not cached yet.
+     * Floors outside the game are ignored.
+     */
+    public synchronized void prefetch(int floorNumber, long seed) {
+        if (floorNumber < 0 || floorNumber >= Constants.MAX_FLOORS) {
+            return;
+        }
+        Key key = new Key(floorNumber, seed);
+        if (!cache.containsKey(key)) {
+            cache.put(key, submit(floorNumber, seed));
+            evictOldest();
+        }
+    }
+
+    /**
+     * Remove a floor from the cache and return it, waiting for its
+     * generation to finish. A floor that was never prefetched is generated
+     * now. The returned level belongs to the caller.
+     */
+    public Level take(int floorNumber, long seed) {
+        Future<Level> future;
+        synchronized (this) {
+            future = cache.remove(new Key(floorNumber, seed));
+            if (future == null) {
+                future = submit(floorNumber, seed);
+            }
+        }
+
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    // The level is needed anyway, finish waiting for it
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Level generation failed for floor " + floorNumber, cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Check if a floor is cached (generated or being generated).
+     */
+    public synchronized boolean isCached(int floorNumber, long seed) {
+        return cache.containsKey(new Key(floorNumber, seed));
+    }
+
+    /**
+     * Drop every cached level and stop the worker thread.
+     */
+    public synchronized void shutdown() {
+        for (Future<Level> future : cache.values()) {
+            future.cancel(false);
+        }
+        cache.clear();
+        executor.shutdownNow();
+    }
+
+    private Future<Level> submit(int floorNumber, long seed) {
+        return executor.submit(() -> LevelFactory.createLevel(floorNumber, seed));
+    }
+
+    private void evictOldest() {
+        Iterator<Future<Level>> it = cache.values().iterator();
+        while (cache.size() > MAX_CACHED_LEVELS && it.hasNext()) {
+            it.next().cancel(false);
+            it.remove();
+        }
+    }
+
+    /**
+     * Cache key: a floor number and the seed it was generated with.
+     */
+    private static final class Key {
+        private final int floor;
+        private final long seed;
+
+        Key(int floor, long seed) {
+            this.floor = floor;
+            this.seed = seed;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return floor == other.floor && seed == other.seed;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * floor + Long.hashCode(seed);
+        }
+    }
+}
@@ -24,11 +24,11 @@ public class LevelVisualizer {
         System.out.println();
         
         // Create a character grid
-        char[][] grid = new char[Constants.BOARD_HEIGHT][Constants.BOARD_WIDTH];
+        char[][] grid = new char[level.getHeight()][level.getWidth()];
         
         // Initialize with empty spaces
-        for (int y = 0; y < Constants.BOARD_HEIGHT; y++) {
-            for (int x = 0; x < Constants.BOARD_WIDTH; x++) {
+        for (int y = 0; y < level.getHeight(); y++) {
+            for (int x = 0; x < level.getWidth(); x++) {
                 if (level.hasWall(x, y)) {
                     grid[y][x] = '#';
                 } else {
@@ -38,14 +38,10 @@ public class LevelVisualizer {
         }
         
         // Mark chests
-        for (Level.Position pos : level.getChests().keySet()) {
-            grid[pos.getY()][pos.getX()] = 'C';
-        }
+        level.forEachChest((x, y, chest) -> grid[y][x] = 'C');
         
         // Mark mobs
-        for (Level.Position pos : level.getMobs().keySet()) {
-            grid[pos.getY()][pos.getX()] = 'M';
-        }
+        level.forEachMob((x, y, mob) -> grid[y][x] = 'M');
         
         // Mark spawn and exit (these override other markers)
         Level.Position spawn = level.getSpawnPosition();
@@ -54,8 +50,8 @@ public class LevelVisualizer {
         grid[exit.getY()][exit.getX()] = 'E';
         
         // Print the grid
-        for (int y = 0; y < Constants.BOARD_HEIGHT; y++) {
-            for (int x = 0; x < Constants.BOARD_WIDTH; x++) {
+        for (int y = 0; y < level.getHeight(); y++) {
+            for (int x = 0; x < level.getWidth(); x++) {
                 System.out.print(grid[y][x]);
             }
             System.out.println();
@@ -65,59 +61,35 @@ public class LevelVisualizer {
         
         // Print statistics
         System.out.println("Statistics:");
-        System.out.println("  Walls: " + level.getWalls().size());
-        System.out.println("  Chests: " + level.getChests().size());
-        System.out.println("  Mobs: " + level.getMobs().size());
+        System.out.println("  Walls: " + level.getWallCount());
+        System.out.println("  Chests: " + level.getChestCount());
+        System.out.println("  Mobs: " + level.getMobCount());
         
         // Verify all important positions are reachable
-        java.util.Set<Level.Position> reachable = getReachableCells(level);
-        System.out.println("  Reachable cells: " + reachable.size());
+        GridFlood reachable = getReachableCells(level);
+        System.out.println("  Reachable cells: " + reachable.getReachedCount());
         
-        boolean exitReachable = reachable.contains(exit);
+        boolean exitReachable = reachable.isReached(exit.getX(), exit.getY());
         System.out.println("  Exit reachable: " + (exitReachable ? "YES" : "NO"));
         
-        int unreachableChests = 0;
-        for (Level.Position pos : level.getChests().keySet()) {
-            if (!reachable.contains(pos)) {
-                unreachableChests++;
+        int[] unreachableChests = {0};
+        level.forEachChest((x, y, chest) -> {
+            if (!reachable.isReached(x, y)) {
+                unreachableChests[0]++;
             }
-        }
+        });
         
-        if (unreachableChests > 0) {
-            System.out.println("  WARNING: " + unreachableChests + " chest(s) are unreachable!");
+        if (unreachableChests[0] > 0) {
+            System.out.println("  WARNING: " + unreachableChests[0] + " chest(s) are unreachable!");
         } else {
             System.out.println("  All chests are reachable: YES");
         }
     }
     
-    private static java.util.Set<Level.Position> getReachableCells(Level level) {
-        java.util.Set<Level.Position> visited = new java.util.HashSet<>();
-        java.util.Queue<Level.Position> queue = new java.util.LinkedList<>();
-        
+    private static GridFlood getReachableCells(Level level) {
         Level.Position spawn = level.getSpawnPosition();
-        queue.add(spawn);
-        visited.add(spawn);
-        
-        int[][] directions = {{0, -1}, {0, 1}, {-1, 0}, {1, 0}};
-        
-        while (!queue.isEmpty()) {
-            Level.Position current = queue.poll();
-            
-            for (int[] dir : directions) {
-                int newX = current.getX() + dir[0];
-                int newY = current.getY() + dir[1];
-                Level.Position neighbor = new Level.Position(newX, newY);
-                
-                if (newX >= 0 && newX < Constants.BOARD_WIDTH && 
-                    newY >= 0 && newY < Constants.BOARD_HEIGHT &&
-                    !level.hasWall(newX, newY) && 
-                    !visited.contains(neighbor)) {
-                    visited.add(neighbor);
-                    queue.add(neighbor);
-                }
-            }
-        }
-        
-        return visited;
+        GridFlood flood = GridFlood.forLevel(level);
+        flood.flood(spawn.getX(), spawn.getY());
+        return flood;
     }
 }
@@ -1,9 +1,13 @@
 package base;
 
+import java.io.Serializable;
+
 /**
  * Represents monsters/mobs in the game.
  */
-public class Mob {
+public class Mob implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
     
     public enum MobType {
         SMALL,   // Base stats
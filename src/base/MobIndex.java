@@ -0,0 +1,151 @@
+package base;
+
+import java.io.Serializable;
+
+/**
+ * Spatial index of the mobs of a level.
+ * Mobs are kept as packed tile keys in a uniform grid of square buckets, and
+ * bosses are also kept in their own list, so range queries only look at the
+ * buckets (or bosses) near the query point and never allocate.
+ */
+class MobIndex implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int BUCKET_SIZE = 8;
+
+    private final int width;
+    private final int bucketsX;
+    private final int bucketsY;
+    private final int[][] buckets;
+    private final int[] bucketCounts;
+    private int[] bosses = new int[4];
+    private int bossCount;
+
+    MobIndex(int width, int height) {
+        this.width = width;
+        this.bucketsX = (width + BUCKET_SIZE - 1) / BUCKET_SIZE;
+        this.bucketsY = (height + BUCKET_SIZE - 1) / BUCKET_SIZE;
+        this.buckets = new int[bucketsX * bucketsY][];
+        this.bucketCounts = new int[bucketsX * bucketsY];
+    }
+
+    /**
+     * Register a mob at a packed tile key.
+     */
+    void add(int key, Mob.MobType type) {
+        int bucket = bucketOf(key);
+        int[] keys = buckets[bucket];
+        if (keys == null) {
+            keys = new int[4];
+            buckets[bucket] = keys;
+        } else if (bucketCounts[bucket] == keys.length) {
+            keys = java.util.Arrays.copyOf(keys, keys.length * 2);
+            buckets[bucket] = keys;
+        }
+        keys[bucketCounts[bucket]++] = key;
+
+        if (type == Mob.MobType.BOSS) {
+            if (bossCount == bosses.length) {
+                bosses = java.util.Arrays.copyOf(bosses, bosses.length * 2);
+            }
+            bosses[bossCount++] = key;
+        }
+    }
+
+    /**
+     * Forget the mob at a packed tile key.
+     */
+    void remove(int key, Mob.MobType type) {
+        int bucket = bucketOf(key);
+        int[] keys = buckets[bucket];
+        if (keys != null) {
+            bucketCounts[bucket] = removeKey(keys, bucketCounts[bucket], key);
+        }
+        if (type == Mob.MobType.BOSS) {
+            bossCount = removeKey(bosses, bossCount, key);
+        }
+    }
+
+    /**
+     * Find a mob within a Manhattan distance of a tile.
+     * @param type the mob type to look for, or null for any type
+     * @return the packed key of the first mob found, or -1
+     */
+    int findWithin(Level level, int x, int y, int maxDistance, Mob.MobType type) {
+        if (type == Mob.MobType.BOSS) {
+            for (int i = 0; i < bossCount; i++) {
+                if (manhattan(bosses[i], x, y) <= maxDistance) {
+                    return bosses[i];
+                }
+            }
+            return -1;
+        }
+        int minBx = Math.max(0, (x - maxDistance) / BUCKET_SIZE);
+        int maxBx = Math.min(bucketsX - 1, (x + maxDistance) / BUCKET_SIZE);
+        int minBy = Math.max(0, (y - maxDistance) / BUCKET_SIZE);
+        int maxBy = Math.min(bucketsY - 1, (y + maxDistance) / BUCKET_SIZE);
+        for (int by = minBy; by <= maxBy; by++) {
+            for (int bx = minBx; bx <= maxBx; bx++) {
+                int bucket = by * bucketsX + bx;
+                int[] keys = buckets[bucket];
+                for (int i = 0; i < bucketCounts[bucket]; i++) {
+                    int key = keys[i];
+                    if (manhattan(key, x, y) <= maxDistance
+                            && (type == null || level.mobAt(key).getType() == type)) {
+                        return key;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Visit every mob within a Euclidean radius of a tile.
+     */
+    void forEachWithinRadius(Level level, int x, int y, int radius, Level.MobConsumer action) {
+        int minBx = Math.max(0, (x - radius) / BUCKET_SIZE);
+        int maxBx = Math.min(bucketsX - 1, (x + radius) / BUCKET_SIZE);
+        int minBy = Math.max(0, (y - radius) / BUCKET_SIZE);
+        int maxBy = Math.min(bucketsY - 1, (y + radius) / BUCKET_SIZE);
+        int radiusSquared = radius * radius;
+        for (int by = minBy; by <= maxBy; by++) {
+            for (int bx = minBx; bx <= maxBx; bx++) {
+                int bucket = by * bucketsX + bx;
+                int[] keys = buckets[bucket];
+                for (int i = 0; i < bucketCounts[bucket]; i++) {
+                    int mx = keys[i] % width;
+                    int my = keys[i] / width;
+                    int dx = mx - x;
+                    int dy = my - y;
+                    if (dx * dx + dy * dy <= radiusSquared) {
+                        action.accept(mx, my, level.mobAt(keys[i]));
+                    }
+                }
+            }
+        }
+    }
+
+    private int bucketOf(int key) {
+        return (key / width / BUCKET_SIZE) * bucketsX + (key % width) / BUCKET_SIZE;
+    }
+
+    private int manhattan(int key, int x, int y) {
+        return Math.abs(key % width - x) + Math.abs(key / width - y);
+    }
+
+    /**
+     * Swap-remove a key from the first count entries of an array.
+     * @return the new count
+     */
+    private static int removeKey(int[] keys, int count, int key) {
+        for (int i = 0; i < count; i++) {
+            if (keys[i] == key) {
+                keys[i] = keys[count - 1];
+                return count - 1;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,196 @@
+package base;
+
+import java.util.Arrays;
+
+/**
+ * Cached distance maps over the walkable tiles of a level.
+ * One map is kept per target kind (exit, nearest unopened chest, boss), each
+ * holding the number of steps needed to reach the target from every tile.
+ * Maps are built once per level and patched when mobs or chests disappear,
+ * so distance and next-step queries never run a search.
+ */
+public class NavigationField {
+
+    /**
+     * Distance returned for tiles that cannot reach the target.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    // Directions: up, down, left, right
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0};
+    private static final GameManager.Direction[] DIRECTIONS = {
+        GameManager.Direction.UP, GameManager.Direction.DOWN,
+        GameManager.Direction.LEFT, GameManager.Direction.RIGHT
+    };
+
+    /**
+     * Kinds of targets a distance map can be queried for.
+     */
+    public enum Target {
+        EXIT, CHEST, BOSS
+    }
+
+    private final Level level;
+    private final int width;
+    private final int height;
+    private final int[][] distances;
+    private final int[] queue;
+    private int tail;                 // end of the BFS queue
+
+    public NavigationField(Level level) {
+        this.level = level;
+        this.width = level.getWidth();
+        this.height = level.getHeight();
+        this.distances = new int[Target.values().length][width * height];
+        this.queue = new int[width * height];
+        for (Target target : Target.values()) {
+            rebuild(target);
+        }
+    }
+
+    /**
+     * Number of steps from a tile to the nearest target of the given kind.
+     * @return 0 on the target itself, UNREACHABLE if there is no path
+     */
+    public int distance(Target target, int x, int y) {
+        if (!contains(x, y)) {
+            return UNREACHABLE;
+        }
+        return distances[target.ordinal()][y * width + x];
+    }
+
+    /**
+     * Direction of the first step on a shortest path towards a target.
+     * The step may lead onto the target itself (e.g. into the boss).
+     * @return the direction, or null if on the target or no path exists
+     */
+    public GameManager.Direction nextStep(Target target, int x, int y) {
+        int current = distance(target, x, y);
+        if (current == 0 || current == UNREACHABLE) {
+            return null;
+        }
+        int[] dist = distances[target.ordinal()];
+        for (int dir = 0; dir < 4; dir++) {
+            int nx = x + DX[dir];
+            int ny = y + DY[dir];
+            if (contains(nx, ny) && dist[ny * width + nx] == current - 1) {
+                return DIRECTIONS[dir];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Update the maps after a mob was removed from the level.
+     * The freed tile becomes walkable, which can only shorten paths.
+     */
+    public void mobRemoved(int x, int y, Mob.MobType type) {
+        if (type == Mob.MobType.BOSS) {
+            // The set of boss targets changed, distances may grow
+            rebuild(Target.BOSS);
+        }
+        for (Target target : Target.values()) {
+            if (target != Target.BOSS || type != Mob.MobType.BOSS) {
+                relaxFrom(target, x, y);
+            }
+        }
+    }
+
+    /**
+     * Update the maps after a chest was opened or removed.
+     */
+    public void chestsChanged() {
+        rebuild(Target.CHEST);
+    }
+
+    /**
+     * Recompute one distance map from scratch with a multi-source BFS.
+     */
+    private void rebuild(Target target) {
+        int[] dist = distances[target.ordinal()];
+        Arrays.fill(dist, UNREACHABLE);
+        tail = 0;
+        switch (target) {
+            case EXIT:
+                Level.Position exit = level.getExitPosition();
+                seed(dist, exit.getX(), exit.getY());
+                break;
+            case CHEST:
+                level.forEachChest((x, y, chest) -> {
+                    if (!chest.isOpened()) {
+                        seed(dist, x, y);
+                    }
+                });
+                break;
+            case BOSS:
+                level.forEachMob((x, y, mob) -> {
+                    if (mob.getType() == Mob.MobType.BOSS) {
+                        seed(dist, x, y);
+                    }
+                });
+                break;
+        }
+        propagate(dist, 0);
+    }
+
+    /**
+     * Give a newly walkable tile its distance from its neighbours and
+     * push any resulting improvements outwards.
+     */
+    private void relaxFrom(Target target, int x, int y) {
+        int[] dist = distances[target.ordinal()];
+        int index = y * width + x;
+        int best = dist[index];
+        for (int dir = 0; dir < 4; dir++) {
+            int nx = x + DX[dir];
+            int ny = y + DY[dir];
+            if (contains(nx, ny)) {
+                int neighbour = dist[ny * width + nx];
+                if (neighbour != UNREACHABLE && neighbour + 1 < best) {
+                    best = neighbour + 1;
+                }
+            }
+        }
+        if (best >= dist[index]) {
+            return;
+        }
+        dist[index] = best;
+        queue[0] = index;
+        tail = 1;
+        propagate(dist, 0);
+    }
+
+    private void seed(int[] dist, int x, int y) {
+        int index = y * width + x;
+        dist[index] = 0;
+        queue[tail++] = index;
+    }
+
+    /**
+     * BFS over walkable tiles, lowering distances where a shorter path is found.
+     */
+    private void propagate(int[] dist, int head) {
+        while (head < tail) {
+            int current = queue[head++];
+            int cx = current % width;
+            int cy = current / width;
+            int next = dist[current] + 1;
+            for (int dir = 0; dir < 4; dir++) {
+                int nx = cx + DX[dir];
+                int ny = cy + DY[dir];
+                if (level.isValidMove(nx, ny)) {
+                    int index = ny * width + nx;
+                    if (next < dist[index]) {
+                        dist[index] = next;
+                        queue[tail++] = index;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+}
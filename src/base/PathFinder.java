@@ -0,0 +1,222 @@
+package base;
+
+/**
+ * A* shortest-path search on a level's tile grid.
+ * All search state lives in primitive arrays that are reused between
+ * searches: a binary min-heap of tile indices and per-tile scores tagged
+ * with a search stamp, so starting a new search never clears the arrays.
+ * Movement is 4-connected, matching {@link GameManager#movePlayer}.
+ */
+public class PathFinder {
+
+    // Directions: up, down, left, right
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0};
+
+    private final int width;
+    private final int height;
+
+    private final int[] gScore;
+    private final int[] cameFrom;
+    private final int[] stamp;        // search that last touched a tile
+    private final boolean[] closed;
+    private final int[] heapIndex;    // position of a tile in the heap, -1 if absent
+    private final int[] heap;
+    private final int[] heapKey;      // f-score of the heap entries
+    private final int[] heapH;        // h-score of the heap entries, for tie-breaking
+    private int heapSize;
+    private int currentStamp;
+
+    public PathFinder(int width, int height) {
+        int cells = width * height;
+        this.width = width;
+        this.height = height;
+        this.gScore = new int[cells];
+        this.cameFrom = new int[cells];
+        this.stamp = new int[cells];
+        this.closed = new boolean[cells];
+        this.heapIndex = new int[cells];
+        this.heap = new int[cells];
+        this.heapKey = new int[cells];
+        this.heapH = new int[cells];
+    }
+
+    /**
+     * Find a shortest path between two tiles.
+     * Intermediate tiles must be free to walk on ({@link Level#isValidMove});
+     * the goal itself may hold a mob, so a path can end by attacking it.
+     * @return packed tile keys (y * width + x) of each step from the first
+     *         move to the goal, an empty array if already there, or null if
+     *         the goal cannot be reached
+     */
+    public int[] findPath(Level level, int startX, int startY, int goalX, int goalY) {
+        if (!contains(startX, startY) || !contains(goalX, goalY) || level.hasWall(goalX, goalY)) {
+            return null;
+        }
+        int start = startY * width + startX;
+        int goal = goalY * width + goalX;
+        if (start == goal) {
+            return new int[0];
+        }
+
+        nextStamp();
+        heapSize = 0;
+        touch(start);
+        gScore[start] = 0;
+        cameFrom[start] = -1;
+        push(start, heuristic(startX, startY, goalX, goalY), heuristic(startX, startY, goalX, goalY));
+
+        while (heapSize > 0) {
+            int current = pop();
+            if (current == goal) {
+                return buildPath(start, goal);
+            }
+            closed[current] = true;
+
+            int cx = current % width;
+            int cy = current / width;
+            int nextG = gScore[current] + 1;
+            for (int dir = 0; dir < 4; dir++) {
+                int nx = cx + DX[dir];
+                int ny = cy + DY[dir];
+                if (!contains(nx, ny)) {
+                    continue;
+                }
+                int neighbour = ny * width + nx;
+                if (neighbour != goal && !level.isValidMove(nx, ny)) {
+                    continue;
+                }
+                touch(neighbour);
+                if (closed[neighbour] || nextG >= gScore[neighbour]) {
+                    continue;
+                }
+                gScore[neighbour] = nextG;
+                cameFrom[neighbour] = current;
+                int h = heuristic(nx, ny, goalX, goalY);
+                if (heapIndex[neighbour] >= 0) {
+                    heapKey[heapIndex[neighbour]] = nextG + h;
+                    siftUp(heapIndex[neighbour]);
+                } else {
+                    push(neighbour, nextG + h, h);
+                }
+            }
+        }
+        return null;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    private int[] buildPath(int start, int goal) {
+        int[] path = new int[gScore[goal]];
+        int node = goal;
+        for (int i = path.length - 1; i >= 0; i--) {
+            path[i] = node;
+            node = cameFrom[node];
+        }
+        return path;
+    }
+
+    private static int heuristic(int x, int y, int goalX, int goalY) {
+        return Math.abs(goalX - x) + Math.abs(goalY - y);
+    }
+
+    private boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    private void nextStamp() {
+        currentStamp++;
+        if (currentStamp == Integer.MAX_VALUE) {
+            // Stamps wrapped: forget every tile once
+            java.util.Arrays.fill(stamp, 0);
+            currentStamp = 1;
+        }
+    }
+
+    /**
+     * Lazily reset a tile's state the first time a search touches it.
+     */
+    private void touch(int index) {
+        if (stamp[index] != currentStamp) {
+            stamp[index] = currentStamp;
+            gScore[index] = Integer.MAX_VALUE;
+            closed[index] = false;
+            heapIndex[index] = -1;
+        }
+    }
+
+    // Binary heap ordered by f-score, then by h-score (prefer tiles nearer the goal)
+
+    private void push(int node, int key, int h) {
+        int i = heapSize++;
+        heap[i] = node;
+        heapKey[i] = key;
+        heapH[i] = h;
+        heapIndex[node] = i;
+        siftUp(i);
+    }
+
+    private int pop() {
+        int top = heap[0];
+        heapIndex[top] = -1;
+        heapSize--;
+        if (heapSize > 0) {
+            move(heapSize, 0);
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private boolean less(int a, int b) {
+        return heapKey[a] < heapKey[b] || (heapKey[a] == heapKey[b] && heapH[a] < heapH[b]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(i, parent)) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= heapSize) {
+                break;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < heapSize && less(right, left)) {
+                smallest = right;
+            }
+            if (!less(smallest, i)) {
+                break;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        heapKey[to] = heapKey[from];
+        heapH[to] = heapH[from];
+        heapIndex[heap[to]] = to;
+    }
+
+    private void swap(int a, int b) {
+        int node = heap[a];
+        int key = heapKey[a];
+        int h = heapH[a];
+        move(b, a);
+        heap[b] = node;
+        heapKey[b] = key;
+        heapH[b] = h;
+        heapIndex[node] = b;
+    }
+}
@@ -0,0 +1,446 @@
+package base;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Save slots, all kept in one memory-mapped file.
+ *
+ * Layout:
+ * <pre>
+ *   header: magic "RPSS" | version (1 byte) | padding | slot count (2 bytes) |
+ *     end of the data (8 bytes) | padding up to HEADER_SIZE
+ *   index: SLOT_COUNT entries of ENTRY_SIZE bytes
+ *     used (1) | hero type (1) | level (2) | floor (2) | name length (1) |
+ *     padding (1) | timestamp (8) | data offset (8) | data length (4) |
+ *     padding (4) | name, UTF-8 (NAME_SIZE)
+ *   data: the saves (GameStateCodec), one after the other, up to the end
+ *     of the data; the file may extend past it
+ * </pre>
+ * The index has a fixed size and holds what the menu shows, so listing the
+ * slots reads a few bytes per slot and decodes no save. Loading a slot
+ * decodes its region straight from the mapping, without copying it.
+ *
+ * A save is written after the existing data and forced to disk, then the
+ * end of the data, then its index entry, so a crash leaves the slot on its
+ * previous save.
+ *
+ * Replaced saves are reclaimed once they take COMPACT_THRESHOLD bytes. The
+ * live saves are copied past the end of the data and the index pointed to
+ * the copies, then they are moved down to the start of the data and the
+ * index pointed back: a crash at any point leaves every slot on a complete
+ * copy. This is done in place, in the mapping: a mapped file can be
+ * neither renamed over nor truncated on every system. The room left at the
+ * end of the file is cut off when the file is next opened.
+ */
+public class SaveSlotStore implements Closeable {
+
+    // "RPSS"
+    static final int MAGIC = 0x52505353;
+    public static final int VERSION = 1;
+
+    public static final int SLOT_COUNT = 64;
+    public static final int NAME_SIZE = 32;
+
+    // Entries are aligned on their size, so that none spans two disk sectors
+    private static final int HEADER_SIZE = 64;
+    private static final int ENTRY_SIZE = 64;
+    private static final int INDEX_END = HEADER_SIZE + SLOT_COUNT * ENTRY_SIZE;
+    private static final int COMPACT_THRESHOLD = 64 * 1024;
+
+    // Offset of the end of the data in the header
+    private static final int DATA_END = 8;
+
+    // Offsets in an index entry
+    private static final int USED = 0;
+    private static final int HERO_TYPE = 1;
+    private static final int LEVEL = 2;
+    private static final int FLOOR = 4;
+    private static final int NAME_LENGTH = 6;
+    private static final int TIMESTAMP = 8;
+    private static final int DATA_OFFSET = 16;
+    private static final int DATA_LENGTH = 24;
+    private static final int NAME = 32;
+
+    private final Path file;
+    private FileChannel channel;
+    private MappedByteBuffer map;
+
+    private SaveSlotStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Open the slot file, creating it if it does not exist.
+     * @throws IOException if the file cannot be opened or is not a slot file
+     */
+    public static SaveSlotStore open(String filename) throws IOException {
+        SaveSlotStore store = new SaveSlotStore(Paths.get(filename));
+        try {
+            store.openChannel();
+        } catch (IOException e) {
+            store.close();
+            throw e;
+        }
+        return store;
+    }
+
+    private void openChannel() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size == 0) {
+            remap(INDEX_END);
+            map.putInt(0, MAGIC);
+            map.put(4, (byte) VERSION);
+            map.putShort(6, (short) SLOT_COUNT);
+            map.putLong(DATA_END, INDEX_END);
+            map.force();
+            return;
+        }
+        if (size < INDEX_END) {
+            throw new IOException("Not a save slot file: " + file);
+        }
+
+        // The header is read before mapping, so the file can still be cut
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // Read until full
+        }
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a save slot file: " + file);
+        }
+        int version = header.get(4) & 0xFF;
+        if (version != VERSION || header.getShort(6) != SLOT_COUNT) {
+            throw new IOException("Unsupported save slot file version: " + version);
+        }
+        long end = header.getLong(DATA_END);
+        if (end == 0) {
+            // Written before the end of the data was kept: the data ends with the file
+            end = size;
+        }
+        if (end < INDEX_END || end > size) {
+            throw new IOException("Corrupted save slot file: " + file);
+        }
+        if (size > end) {
+            try {
+                channel.truncate(end);
+                size = end;
+            } catch (IOException e) {
+                // The file may still be mapped elsewhere; it keeps its room
+            }
+        }
+        remap(size);
+        map.putLong(DATA_END, end);
+    }
+
+    /**
+     * Map the file from its start, growing it to the given size if needed.
+     */
+    private void remap(long size) throws IOException {
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * What the menu shows of a slot, read from the index.
+     */
+    public static final class SlotInfo {
+        private final int slot;
+        private final String name;
+        private final Hero.HeroType heroType;
+        private final int level;
+        private final int floor;
+        private final long timestamp;
+
+        SlotInfo(int slot, String name, Hero.HeroType heroType, int level, int floor, long timestamp) {
+            this.slot = slot;
+            this.name = name;
+            this.heroType = heroType;
+            this.level = level;
+            this.floor = floor;
+            this.timestamp = timestamp;
+        }
+
+        public int getSlot() { return slot; }
+        public String getName() { return name; }
+        public Hero.HeroType getHeroType() { return heroType; }
+        public int getLevel() { return level; }
+        public int getFloor() { return floor; }
+        /** Time of the save, in milliseconds since the epoch. */
+        public long getTimestamp() { return timestamp; }
+    }
+
+    /**
+     * List the used slots, from the index only.
+     */
+    public synchronized List<SlotInfo> list() {
+        List<SlotInfo> slots = new ArrayList<>();
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            if (isUsed(slot)) {
+                slots.add(info(slot));
+            }
+        }
+        return slots;
+    }
+
+    private SlotInfo info(int slot) {
+        int entry = entry(slot);
+        Hero.HeroType[] types = Hero.HeroType.values();
+        int type = map.get(entry + HERO_TYPE) & 0xFF;
+        return new SlotInfo(slot, name(slot), type < types.length ? types[type] : null,
+                map.getShort(entry + LEVEL), map.getShort(entry + FLOOR),
+                map.getLong(entry + TIMESTAMP));
+    }
+
+    private String name(int slot) {
+        int entry = entry(slot);
+        byte[] name = new byte[Math.min(map.get(entry + NAME_LENGTH) & 0xFF, NAME_SIZE)];
+        map.get(entry + NAME, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Find the used slot with the given name.
+     * @return the slot, or -1 if none has this name
+     */
+    public synchronized int find(String name) {
+        String key = new String(truncate(name), StandardCharsets.UTF_8);
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            if (isUsed(slot) && name(slot).equals(key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Save a game in the slot with the given name, replacing its previous
+     * save, or in the first free slot.
+     * @return the slot written
+     * @throws IOException if the file cannot be written, or all slots are used
+     */
+    public synchronized int save(String name, GameState state) throws IOException {
+        int slot = find(name);
+        if (slot < 0) {
+            slot = firstFree();
+            if (slot < 0) {
+                throw new IOException("All " + SLOT_COUNT + " save slots are used");
+            }
+        }
+        save(slot, name, state);
+        return slot;
+    }
+
+    /**
+     * Save a game in a given slot.
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void save(int slot, String name, GameState state) throws IOException {
+        checkSlot(slot);
+        byte[] data = GameStateCodec.encode(state);
+
+        // Data first, forced, so that the index never points to a save that
+        // is not entirely on disk
+        long offset = map.getLong(DATA_END);
+        reserve(offset + data.length);
+        map.put((int) offset, data);
+        map.force((int) offset, data.length);
+        setDataEnd(offset + data.length);
+
+        byte[] nameBytes = truncate(name);
+        Hero hero = state.getHero();
+        int entry = entry(slot);
+        map.put(entry + HERO_TYPE, (byte) hero.getType().ordinal());
+        map.putShort(entry + LEVEL, (short) hero.getLevel());
+        map.putShort(entry + FLOOR, (short) state.getCurrentFloor());
+        map.put(entry + NAME_LENGTH, (byte) nameBytes.length);
+        map.putLong(entry + TIMESTAMP, System.currentTimeMillis());
+        map.putLong(entry + DATA_OFFSET, offset);
+        map.putInt(entry + DATA_LENGTH, data.length);
+        map.put(entry + NAME, new byte[NAME_SIZE]);
+        map.put(entry + NAME, nameBytes);
+        map.put(entry + USED, (byte) 1);
+        map.force(entry, ENTRY_SIZE);
+
+        compactIfNeeded();
+    }
+
+    /**
+     * Load the game saved in a slot, decoding it in place in the mapping.
+     * @throws IOException if the slot is empty or its save is corrupted
+     */
+    public synchronized GameState load(int slot) throws IOException {
+        checkSlot(slot);
+        if (!isUsed(slot)) {
+            throw new IOException("Save slot " + slot + " is empty");
+        }
+        int entry = entry(slot);
+        long offset = map.getLong(entry + DATA_OFFSET);
+        int length = map.getInt(entry + DATA_LENGTH);
+        if (offset < INDEX_END || length < 0 || offset + length > map.getLong(DATA_END)) {
+            throw new IOException("Corrupted save slot " + slot);
+        }
+        return GameStateCodec.decode(map.slice((int) offset, length));
+    }
+
+    /**
+     * Free a slot. Its data is reclaimed at the next compaction.
+     */
+    public synchronized void delete(int slot) {
+        checkSlot(slot);
+        int entry = entry(slot);
+        map.put(entry + USED, (byte) 0);
+        map.force(entry, ENTRY_SIZE);
+    }
+
+    /**
+     * Grow the file and its mapping to at least the given size.
+     */
+    private void reserve(long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Save slot file is full: " + file);
+        }
+        if (size > map.capacity()) {
+            remap(size);
+        }
+    }
+
+    private void setDataEnd(long end) {
+        map.putLong(DATA_END, end);
+        map.force(0, HEADER_SIZE);
+    }
+
+    private boolean isUsed(int slot) {
+        return map.get(entry(slot) + USED) != 0;
+    }
+
+    private int firstFree() {
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            if (!isUsed(slot)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private static int entry(int slot) {
+        return HEADER_SIZE + slot * ENTRY_SIZE;
+    }
+
+    private static void checkSlot(int slot) {
+        if (slot < 0 || slot >= SLOT_COUNT) {
+            throw new IllegalArgumentException("Invalid save slot: " + slot);
+        }
+    }
+
+    /**
+     * Encode a name in at most NAME_SIZE bytes, without cutting a character.
+     */
+    private static byte[] truncate(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= NAME_SIZE) {
+            return bytes;
+        }
+        int length = NAME_SIZE;
+        // Back up to the start of a character (not a continuation byte)
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        return Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * Pack the live saves at the start of the data once replaced ones take
+     * too much room. See the class comment for why a crash loses nothing.
+     */
+    private void compactIfNeeded() throws IOException {
+        long live = 0;
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            if (isUsed(slot)) {
+                live += map.getInt(entry(slot) + DATA_LENGTH);
+            }
+        }
+        long end = map.getLong(DATA_END);
+        if (end - INDEX_END - live < COMPACT_THRESHOLD) {
+            return;
+        }
+
+        // Copy the live saves past the end of the data and use the copies
+        reserve(end + live);
+        relocate(end);
+        map.force((int) end, (int) live);
+        setDataEnd(end + live);
+        updateOffsets(end);
+
+        // The start of the data is now unused: move them down there
+        move(end, INDEX_END, (int) live);
+        map.force(INDEX_END, (int) live);
+        updateOffsets(INDEX_END);
+        setDataEnd(INDEX_END + live);
+    }
+
+    /**
+     * Copy the live saves one after the other from the given offset, in
+     * slot order. The index is not changed.
+     */
+    private void relocate(long to) {
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            if (isUsed(slot)) {
+                int entry = entry(slot);
+                int length = map.getInt(entry + DATA_LENGTH);
+                move(map.getLong(entry + DATA_OFFSET), to, length);
+                to += length;
+            }
+        }
+    }
+
+    /**
+     * Point the index to live saves laid out one after the other from the
+     * given offset, in slot order, and force it to disk.
+     */
+    private void updateOffsets(long from) {
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            if (isUsed(slot)) {
+                int entry = entry(slot);
+                map.putLong(entry + DATA_OFFSET, from);
+                from += map.getInt(entry + DATA_LENGTH);
+            }
+        }
+        map.force(HEADER_SIZE, INDEX_END - HEADER_SIZE);
+    }
+
+    private void move(long from, long to, int length) {
+        ByteBuffer target = map.duplicate();
+        target.position((int) to);
+        target.put(map.slice((int) from, length));
+    }
+
+    /**
+     * Close the file. Its mapping is released by the garbage collector.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        map = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    public Path getFile() { return file; }
+
+    /**
+     * Size of the file, index included. It may extend past the data.
+     */
+    public synchronized long getFileSize() { return map.capacity(); }
+}
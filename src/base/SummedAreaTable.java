@@ -0,0 +1,88 @@
+package base;
+
+import java.util.Set;
+
+/**
+ * Summed-area table (integral image) over a grid of marked cells.
+ * After a single pass over the grid, the number of marked cells in any
+ * axis-aligned rectangle is answered in constant time.
+ */
+public class SummedAreaTable {
+
+    private final int width;
+    private final int height;
+
+    // sums[(y + 1) * (width + 1) + (x + 1)] = marked cells in [0..x] x [0..y];
+    // row and column 0 stay zero so rectangle queries need no bounds checks
+    private final int[] sums;
+
+    public SummedAreaTable(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.sums = new int[(width + 1) * (height + 1)];
+    }
+
+    /**
+     * Build a table counting the given positions (e.g. the walls of a level
+     * being generated). Positions outside the grid are ignored.
+     */
+    public static SummedAreaTable of(Set<Level.Position> cells, int width, int height) {
+        SummedAreaTable table = new SummedAreaTable(width, height);
+        for (Level.Position pos : cells) {
+            int x = pos.getX();
+            int y = pos.getY();
+            if (x >= 0 && x < width && y >= 0 && y < height) {
+                table.sums[(y + 1) * (width + 1) + (x + 1)] = 1;
+            }
+        }
+        table.accumulate();
+        return table;
+    }
+
+    /**
+     * Turn the per-cell marks into prefix sums, row by row.
+     */
+    private void accumulate() {
+        int stride = width + 1;
+        for (int y = 1; y <= height; y++) {
+            int rowSum = 0;
+            for (int x = 1; x <= width; x++) {
+                int index = y * stride + x;
+                rowSum += sums[index];
+                sums[index] = sums[index - stride] + rowSum;
+            }
+        }
+    }
+
+    /**
+     * Number of marked cells in the rectangle [x0..x1] x [y0..y1], bounds
+     * included. The rectangle is clipped to the grid.
+     */
+    public int count(int x0, int y0, int x1, int y1) {
+        x0 = Math.max(x0, 0);
+        y0 = Math.max(y0, 0);
+        x1 = Math.min(x1, width - 1);
+        y1 = Math.min(y1, height - 1);
+        if (x0 > x1 || y0 > y1) {
+            return 0;
+        }
+        int stride = width + 1;
+        return sums[(y1 + 1) * stride + (x1 + 1)]
+                - sums[y0 * stride + (x1 + 1)]
+                - sums[(y1 + 1) * stride + x0]
+                + sums[y0 * stride + x0];
+    }
+
+    /**
+     * Check if a square window of the given size centered on a cell holds
+     * no marked cell.
+     */
+    public boolean isWindowClear(int centerX, int centerY, int size) {
+        int before = (size - 1) / 2;
+        int after = size / 2;
+        return count(centerX - before, centerY - before, centerX + after, centerY + after) == 0;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+}
@@ -18,6 +18,14 @@ import ihm.view.propriete.ProprietesDialog;
 public class FrontEnd {
 
 	private GameFrame GF; 
+	
+	// Mises à jour de cases accumulées entre beginFrame et commitFrame
+	private boolean frameOpen;
+	private int frameSize;
+	private int[] frameXs = new int[64];
+	private int[] frameYs = new int[64];
+	private Image[] frameImages = new Image[64];
+	private boolean[] frameReplace = new boolean[64];
 		
 	/**
 	 * Génération d'une interface graphique contenant un plateau de jeu.
@@ -121,6 +129,10 @@ public class FrontEnd {
 	public void setBackground(final int x, final int y, String backgroundImage, final boolean repaint) {
 		try {
 			final Image img = ImageManager.getImage(backgroundImage);
+			if (frameOpen) {
+				addToFrame(x, y, img, false);
+				return;
+			}
 			try {	
 				java.awt.EventQueue.invokeLater(new Runnable() {
 					public void run() {
@@ -137,6 +149,138 @@ public class FrontEnd {
 	}
 	
 	
+	/**
+	 * Chargement d'une image de fond pour une case, par identifiant de texture.
+	 * La texture remplace le contenu de la case : un rendu qui n'envoie que
+	 * les cases changées n'a pas à effacer la case d'abord.
+	 * @param x Abscisse de la case.
+	 * @param y Ordonnée de la case.
+	 * @param textureId identifiant rendu par {@link #getTextureId(String)}.
+	 */
+	public void setBackground(final int x, final int y, int textureId) {
+		final Image img = ImageManager.getTexture(textureId);
+		if (frameOpen) {
+			addToFrame(x, y, img, true);
+			return;
+		}
+		try {
+			java.awt.EventQueue.invokeLater(new Runnable() {
+				public void run() {
+					GF.getBoardBackground().replaceBackground(x, y, img);
+				}});
+		}
+		catch (Exception e) {
+			exceptionInattendue(e);
+		}
+	}
+	
+	/**
+	 * Préchargement des images d'un répertoire comme textures.
+	 * @param directory répertoire des images.
+	 * @return nombre de textures enregistrées.
+	 */
+	public int loadTextures(String directory) {
+		try {
+			return ImageManager.loadTextures(directory);
+		}
+		catch (FileNotFoundException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+	/**
+	 * Identifiant de texture d'une image préchargée.
+	 * @param name nom du fichier image (par exemple "Sol.png").
+	 * @return l'identifiant.
+	 * @throws RuntimeException si l'image n'a pas été préchargée.
+	 */
+	public int getTextureId(String name) {
+		int id = ImageManager.getTextureId(name);
+		if (id < 0)
+			throw new RuntimeException(new FileNotFoundException("texture "+ name +" non chargée"));
+		return id;
+	}
+	
+	/**
+	 * Identifiant d'une texture dessinée sur une autre (un sprite sur le sol),
+	 * pour qu'une case n'ait toujours qu'une texture.
+	 * @param under identifiant de la texture du dessous.
+	 * @param over identifiant de la texture du dessus.
+	 * @return l'identifiant de la texture composée.
+	 */
+	public int getCompositeTextureId(int under, int over) {
+		return ImageManager.getCompositeTextureId(under, over);
+	}
+	
+	/**
+	 * Début d'une image groupée.
+	 * Jusqu'à l'appel de {@link #commitFrame()}, les appels à setBackground
+	 * sont mémorisés au lieu d'être envoyés un par un à l'interface graphique.
+	 * À appeler depuis un seul thread (celui du jeu).
+	 */
+	public void beginFrame() {
+		frameOpen = true;
+		frameSize = 0;
+	}
+	
+	/**
+	 * Fin d'une image groupée.
+	 * Toutes les cases mémorisées depuis {@link #beginFrame()} sont envoyées
+	 * à l'interface graphique en une seule tâche, suivie d'un seul repaint.
+	 * Rien n'est envoyé si aucune case n'a changé.
+	 */
+	public void commitFrame() {
+		frameOpen = false;
+		if (frameSize == 0) {
+			return;
+		}
+		setBackgrounds(frameXs, frameYs, frameImages, frameReplace, frameSize);
+		frameSize = 0;
+	}
+	
+	/**
+	 * Chargement groupé d'images de fond, envoyé à l'interface graphique
+	 * en une seule tâche avec un seul repaint.
+	 * @param xs abscisses des cases
+	 * @param ys ordonnées des cases
+	 * @param images images à afficher, dans le même ordre
+	 * @param count nombre de cases à mettre à jour
+	 */
+	public void setBackgrounds(int[] xs, int[] ys, Image[] images, int count) {
+		setBackgrounds(xs, ys, images, null, count);
+	}
+	
+	private void setBackgrounds(int[] xs, int[] ys, Image[] images, boolean[] replace, int count) {
+		// Copie : les tableaux de l'appelant peuvent être réutilisés aussitôt
+		final int[] x = java.util.Arrays.copyOf(xs, count);
+		final int[] y = java.util.Arrays.copyOf(ys, count);
+		final Image[] img = java.util.Arrays.copyOf(images, count);
+		final boolean[] rep = replace == null ? null : java.util.Arrays.copyOf(replace, count);
+		try {
+			java.awt.EventQueue.invokeLater(new Runnable() {
+				public void run() {
+					GF.getBoardBackground().setBackgrounds(x, y, img, rep, x.length);
+				}});
+		}
+		catch (Exception e) {
+			exceptionInattendue(e);
+		}
+	}
+	
+	private void addToFrame(int x, int y, Image img, boolean replace) {
+		if (frameSize == frameXs.length) {
+			frameXs = java.util.Arrays.copyOf(frameXs, frameSize * 2);
+			frameYs = java.util.Arrays.copyOf(frameYs, frameSize * 2);
+			frameImages = java.util.Arrays.copyOf(frameImages, frameSize * 2);
+			frameReplace = java.util.Arrays.copyOf(frameReplace, frameSize * 2);
+		}
+		frameXs[frameSize] = x;
+		frameYs[frameSize] = y;
+		frameImages[frameSize] = img;
+		frameReplace[frameSize] = replace;
+		frameSize++;
+	}
+	
 	/**
 	 * Selection d'une zone.
 	 * Cette méthode encadre la case par la couleur donnée.
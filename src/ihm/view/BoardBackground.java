@@ -2,11 +2,15 @@ package ihm.view;
 
 import ihm.model.Board;
 
+import java.awt.AlphaComposite;
+import java.awt.Composite;
 import java.awt.Dimension;
 import java.awt.Image;
-import java.awt.Graphics;
 
 /**
+ * Couche des images de fond du plateau.
+ * Le tampon hors écran est mis à jour case par case quand une image change ;
+ * peindre se limite donc à recopier la zone à repeindre.
  * @author Julien Tesson
  *
  */
@@ -37,11 +41,6 @@ public class BoardBackground extends BoardComponent {
 		backgrounds = new Image[b.getWidth()][b.getHeight()];
 	}
 	
-	@Override
-	public void paint(Graphics g) {
-		paintBackground();
-		super.paint(g);
-	}
 	/**
 	 * @param x
 	 * @param y
@@ -52,20 +51,80 @@ public class BoardBackground extends BoardComponent {
 		backgrounds[x][y] = bgim;
 		paintBackground(x, y);
 		if (repaint)
-			repaint();  // Use repaint() directly instead of update()
+			repaintTile(x, y);
 	}
 	
-	private void paintBackground() {
-		for(int i = 0; i < b.getWidth(); i++)
-			for(int j = 0; j < b.getHeight(); j++)
-				paintBackground(i, j);
+	/**
+	 * Image de fond qui remplace le contenu de la case au lieu d'être
+	 * dessinée par dessus : ses pixels transparents le restent.
+	 * La case est repeinte aussitôt.
+	 * @param x
+	 * @param y
+	 * @param bgim
+	 */
+	public void replaceBackground(int x, int y, Image bgim) {
+		backgrounds[x][y] = bgim;
+		replaceTile(x, y);
+		repaintTile(x, y);
 	}
+	
+	/**
+	 * Mise à jour groupée des images de fond, avec un seul repaint.
+	 * @param xs abscisses des cases
+	 * @param ys ordonnées des cases
+	 * @param images images de fond, dans le même ordre
+	 * @param count nombre de cases à mettre à jour
+	 */
+	public void setBackgrounds(int[] xs, int[] ys, Image[] images, int count) {
+		setBackgrounds(xs, ys, images, null, count);
+	}
+	
+	/**
+	 * Mise à jour groupée des images de fond, avec un seul repaint.
+	 * @param xs abscisses des cases
+	 * @param ys ordonnées des cases
+	 * @param images images de fond, dans le même ordre
+	 * @param replace pour chaque case, vrai si l'image remplace la case
+	 *        (voir {@link #replaceBackground(int, int, Image)}), faux si elle
+	 *        est dessinée par dessus ; null si aucune ne la remplace
+	 * @param count nombre de cases à mettre à jour
+	 */
+	public void setBackgrounds(int[] xs, int[] ys, Image[] images, boolean[] replace, int count) {
+		if (count == 0)
+			return;
+		int minX = xs[0], maxX = xs[0], minY = ys[0], maxY = ys[0];
+		for (int i = 0; i < count; i++) {
+			backgrounds[xs[i]][ys[i]] = images[i];
+			if (replace != null && replace[i])
+				replaceTile(xs[i], ys[i]);
+			else
+				paintBackground(xs[i], ys[i]);
+			minX = Math.min(minX, xs[i]);
+			maxX = Math.max(maxX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			maxY = Math.max(maxY, ys[i]);
+		}
+		// Repeindre seulement le rectangle englobant les cases modifiées
+		repaint(minX * TILE_SIZE, minY * TILE_SIZE,
+				(maxX - minX + 1) * TILE_SIZE, (maxY - minY + 1) * TILE_SIZE);
+	}
+	
 
 	public void paintBackground(int x, int y) {//.getScaledInstance(TILE_SIZE, TILE_SIZE, java.awt.Image.SCALE_DEFAULT)
 		if(backgrounds[x][y] != null)
 			offscreen.drawImage(backgrounds[x][y], x * TILE_SIZE, y * TILE_SIZE, this);
 	}
 	
+	private void replaceTile(int x, int y) {
+		Composite composite = offscreen.getComposite();
+		offscreen.setComposite(AlphaComposite.Src);
+		if (backgrounds[x][y] != null)
+			offscreen.drawImage(backgrounds[x][y], x * TILE_SIZE, y * TILE_SIZE, this);
+		else
+			offscreen.clearRect(x * TILE_SIZE, y * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+		offscreen.setComposite(composite);
+	}
+	
 	public void update() {
 		try {
 			java.awt.EventQueue.invokeLater(new Runnable() {
@@ -3,6 +3,7 @@ package ihm.view;
 //import java.awt.AlphaComposite;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import ihm.model.Board;
@@ -68,10 +69,29 @@ public class BoardComponent extends JComponent{
 		this.setPreferredSize(getSize());
 	}
 	
+	/**
+	 * Copie du tampon hors écran, limitée à la zone à repeindre.
+	 */
 	@Override
 	public void paint(Graphics g) {
 //		System.out.println("painting component"+this);
-		g.drawImage(offscreenImg, 0, 0, this);
+		Rectangle clip = g.getClipBounds();
+		if (clip == null) {
+			g.drawImage(offscreenImg, 0, 0, this);
+			return;
+		}
+		int x2 = clip.x + clip.width;
+		int y2 = clip.y + clip.height;
+		g.drawImage(offscreenImg, clip.x, clip.y, x2, y2, clip.x, clip.y, x2, y2, this);
+	}
+	
+	/**
+	 * Demande de repeindre une seule case.
+	 * @param x abscisse de la case
+	 * @param y ordonnée de la case
+	 */
+	public void repaintTile(int x, int y) {
+		repaint(x * TILE_SIZE, y * TILE_SIZE, TILE_SIZE, TILE_SIZE);
 	}
 	
 	@Override
@@ -3,23 +3,31 @@ package ihm.view;
 import ihm.model.Board;
 
 import java.awt.Color;
-import java.awt.Graphics;
 import java.awt.Image;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Vector;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 /**
  * Cette classe permet l'affichage des sprites, éléments graphiques déplaçables.
+ * Les sprites publient leurs modifications dans une file sans verrou ; le
+ * thread d'affichage la vide en une seule tâche, qui redessine les sprites
+ * modifiés puis repeint une seule fois la zone touchée. Le thread du jeu
+ * n'attend donc jamais l'affichage.
  * @author Julien Tesson
  *
  */
 public class BoardSprites extends BoardComponent {
 
 	private static final long serialVersionUID = -5770285641843589686L;
-	Collection<Sprite> sprites;
-//	TODO sprite overlap
+	// Copie à l'écriture : le parcours n'a pas besoin de verrou
+	List<Sprite> sprites;
+	// États publiés par les sprites, pas encore affichés
+	private final ConcurrentLinkedQueue<Sprite.Snapshot> pending = new ConcurrentLinkedQueue<Sprite.Snapshot>();
+	// Vrai tant qu'une tâche de vidage de la file est en attente sur le thread d'affichage
+	private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
 	
 	/**
 	 * Build a Board to draw sprites, with no sprite and transparent background.
@@ -28,7 +36,7 @@ public class BoardSprites extends BoardComponent {
 	public BoardSprites(Board b) {
 		super(b);
 		offscreen.setBackground(new Color(0,0,0,0));
-		sprites = new Vector<Sprite>() ;
+		sprites = new CopyOnWriteArrayList<Sprite>() ;
 //		if (GameFrame.logLevel > 2 )
 //			System.out.println("offscreen :"+offscreen);
 	}
@@ -36,23 +44,20 @@ public class BoardSprites extends BoardComponent {
 	@Override
 	public void reinit() {
 		super.reinit();
-		sprites = new ArrayList <Sprite>() ;
-	}
-
-	@Override
-	public void paint(Graphics g) {
-		paintSprites();		
-		super.paint(g);
+		offscreen.setBackground(new Color(0,0,0,0));
+		for (Sprite sprite : sprites)
+			sprite.markDeleted();
+		sprites = new CopyOnWriteArrayList<Sprite>() ;
 	}
 
 	/**
-	 * Update all sprites
+	 * Update all sprites: their last state is drawn again at the next drain.
 	 */
 	public void paintSprites() {
-		synchronized (sprites) {
-			for (Sprite sprite : sprites) {
-				update(sprite,false);
-			}		
+		for (Sprite sprite : sprites) {
+			Sprite.Snapshot s = sprite.getPublished();
+			if (s != null)
+				submit(s);
 		}
 	}
 
@@ -61,44 +66,113 @@ public class BoardSprites extends BoardComponent {
 	 * @param S the sprite to be added
 	 */
 	public void addSprite(Sprite S) {
-		synchronized (sprites) {
-			sprites.add(S);
+		sprites.add(S);
+	}
+
+	/**
+	 * Publication d'un nouvel état de sprite, depuis n'importe quel thread.
+	 * Une seule tâche de vidage est en attente à la fois, quel que soit le
+	 * nombre d'états publiés entre deux passages du thread d'affichage.
+	 * @param s l'état à afficher
+	 */
+	void submit(Sprite.Snapshot s) {
+		pending.add(s);
+		if (drainScheduled.compareAndSet(false, true))
+			java.awt.EventQueue.invokeLater(this::drain);
+	}
+
+	/**
+	 * Affichage des états en attente, sur le thread d'affichage.
+	 * Seul le dernier état publié de chaque sprite est dessiné ; la zone
+	 * repeinte est le rectangle englobant les cases modifiées.
+	 */
+	private void drain() {
+		// Remis à faux avant de vider : un état publié pendant le vidage
+		// programme une nouvelle tâche
+		drainScheduled.set(false);
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+		Sprite.Snapshot s;
+		while ((s = pending.poll()) != null) {
+			Sprite sprite = s.sprite;
+			Sprite.Snapshot old = sprite.getDrawn();
+			if (sprite.isDeleted()) {
+				if (old == null)
+					continue;
+				s = null;
+			}
+			else if (s != sprite.getPublished()) {
+				// Un état plus récent suit dans la file
+				continue;
+			}
+			if (old != null) {
+				minX = Math.min(minX, old.x);
+				maxX = Math.max(maxX, old.x);
+				minY = Math.min(minY, old.y);
+				maxY = Math.max(maxY, old.y);
+			}
+			if (s != null) {
+				minX = Math.min(minX, s.x);
+				maxX = Math.max(maxX, s.x);
+				minY = Math.min(minY, s.y);
+				maxY = Math.max(maxY, s.y);
+			}
+			update(sprite, old, s);
 		}
+		if (minX <= maxX)
+			repaint(minX * TILE_SIZE, minY * TILE_SIZE,
+					(maxX - minX + 1) * TILE_SIZE, (maxY - minY + 1) * TILE_SIZE);
 	}
-	
 
 	/**
-	 *  Update the sprite S
+	 *  Update the sprite in the offscreen buffer: clear the cell where it was
+	 *  drawn, draw again the other sprites shown in that cell, then draw its
+	 *  new state.
 	 * @param sprite the sprite to be updated
-	 * @param repaint if true, the board is repainted.
+	 * @param old the state drawn so far, or null
+	 * @param s the state to draw, or null to only clear the sprite
 	 */
-	void update(Sprite sprite, boolean repaint) {
+	private void update(Sprite sprite, Sprite.Snapshot old, Sprite.Snapshot s) {
 		if (GameFrame.logLevel >= 2) {
 			System.out.println("updating sprite on board");
-			System.out.println("clear rectangle, visibility :"+ sprite.getVisibility());
+			System.out.println("clear rectangle, visibility :"+ (s != null && s.visible));
+		}
+		if (old != null) {
+			offscreen.clearRect(old.x * TILE_SIZE, old.y * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+			// L'effacement a aussi emporté les sprites qui partagent la case
+			for (Sprite other : sprites) {
+				Sprite.Snapshot o = other.getDrawn();
+				if (other != sprite && o != null && o.x == old.x && o.y == old.y)
+					draw(o);
+			}
 		}
-		offscreen.clearRect(sprite.getOldX() * TILE_SIZE, sprite.getOldY() * TILE_SIZE, TILE_SIZE, TILE_SIZE);
-		if (sprite.getVisibility()) {	
-			for (Image img : sprite) {
-				if (GameFrame.logLevel >= 2) {
-					System.out.println("drawingSprite "+ img +"at ("+ sprite.getX() +","+ sprite.getY() +")");
-				}
-				offscreen.drawImage(img, sprite.getX() * TILE_SIZE, sprite.getY() * TILE_SIZE, null);
+		if (s != null)
+			draw(s);
+		sprite.updated(s);
+	}
+
+	private void draw(Sprite.Snapshot s) {
+		if (!s.visible)
+			return;
+		for (Image img : s.images) {
+			if (GameFrame.logLevel >= 2) {
+				System.out.println("drawingSprite "+ img +"at ("+ s.x +","+ s.y +")");
 			}
+			offscreen.drawImage(img, s.x * TILE_SIZE, s.y * TILE_SIZE, null);
 		}
-		sprite.updated();
-		if (repaint)
-			BoardSprites.super.repaint();	
 	}
 
 	/**
-	 * Remove the sprite given in parameter
+	 * Remove the sprite given in parameter; its cell is cleared at the
+	 * next drain.
 	 * @param sprite The sprite to remove
 	 */
 	public void delete(Sprite sprite) {
-		synchronized (sprites) {
-			sprites.remove(sprite);
-		}		
+		sprites.remove(sprite);
+		sprite.markDeleted();
+		Sprite.Snapshot last = sprite.getPublished();
+		if (last != null)
+			submit(last);
 	}
 
 }
@@ -3,21 +3,38 @@
  */
 package ihm.view;
 
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
 import java.awt.Image;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.HashMap;
 
+import javax.imageio.ImageIO;
+
 /**
  * Gestion du cache des images.
+ * Les images d'un répertoire peuvent aussi être préchargées dans un registre
+ * de textures, où chacune reçoit un identifiant entier : l'affichage d'une
+ * texture par identifiant ne fait alors ni accès disque, ni hachage.
+ * Les images sont décodées immédiatement (ImageIO) puis converties au
+ * format de pixels de l'écran, pour que leur affichage soit accéléré.
  * @author Julien Tesson
  *
  */
 public class ImageManager {
 	protected static HashMap<URL,Image> map = new HashMap<URL,Image>(10);
 	
+	// Registre des textures : identifiants denses, à partir de 0
+	private static volatile Image[] textures = new Image[0];
+	private static final HashMap<String,Integer> textureIds = new HashMap<String,Integer>();
+	
 	
 	public ImageManager() {
 		super();
@@ -25,9 +42,150 @@ public class ImageManager {
 	}
 
 
+	/**
+	 * Préchargement de toutes les images PNG d'un répertoire dans le registre
+	 * de textures. Une image déjà enregistrée garde son identifiant.
+	 * @param directory répertoire des images (par exemple "./images/")
+	 * @return nombre de textures enregistrées
+	 * @throws FileNotFoundException si le répertoire n'existe pas
+	 */
+	public static synchronized int loadTextures(String directory) throws FileNotFoundException {
+		File dir = new File(directory);
+		File[] files = dir.listFiles((d, name) -> name.toLowerCase().endsWith(".png"));
+		if (files == null)
+			throw new FileNotFoundException("le répertoire "+ dir.getAbsolutePath() +" n'existe pas");
+		Arrays.sort(files);
+		String prefix = directory.endsWith("/") || directory.endsWith(File.separator) ? directory : directory + "/";
+		
+		Image[] loaded = Arrays.copyOf(textures, textures.length + files.length);
+		int count = textures.length;
+		int first = count;
+		long totalBytes = 0;
+		long start = System.nanoTime();
+		for (File f : files) {
+			String path = prefix + f.getName();
+			if (textureIds.containsKey(path))
+				continue;
+			long imageStart = System.nanoTime();
+			BufferedImage img = decode(f);
+			long bytes = sizeOf(img);
+			totalBytes += bytes;
+			if (GameFrame.logLevel >= 1)
+				System.out.println("texture "+ count +" "+ f.getName() +" : "+ img.getWidth() +"x"+ img.getHeight()
+						+", "+ bytes / 1024 +" Ko, "+ (System.nanoTime() - imageStart) / 1000 +" µs");
+			loaded[count] = img;
+			// Accessible par nom de fichier seul ou par chemin complet
+			textureIds.put(path, count);
+			textureIds.put(f.getName(), count);
+			count++;
+		}
+		textures = Arrays.copyOf(loaded, count);
+		if (count > first)
+			System.out.println((count - first) +" textures chargées depuis "+ directory +" en "
+					+ (System.nanoTime() - start) / 1000000 +" ms ("+ totalBytes / 1024 +" Ko)");
+		return count;
+	}
+	
+	/**
+	 * Identifiant d'une texture préchargée.
+	 * @param name nom du fichier (par exemple "Sol.png") ou chemin complet
+	 * @return l'identifiant, ou -1 si la texture n'est pas enregistrée
+	 */
+	public static synchronized int getTextureId(String name) {
+		Integer id = textureIds.get(name);
+		return id == null ? -1 : id;
+	}
+	
+	/**
+	 * Texture composée de deux textures superposées, par exemple un sprite
+	 * sur le sol. Elle est créée au premier appel puis enregistrée comme les
+	 * autres : afficher un sprite sur son fond reste une seule texture.
+	 * @param under identifiant de la texture du dessous (opaque)
+	 * @param over identifiant de la texture dessinée par dessus
+	 * @return l'identifiant de la texture composée
+	 */
+	public static synchronized int getCompositeTextureId(int under, int over) {
+		String key = under +"+"+ over;
+		Integer id = textureIds.get(key);
+		if (id != null)
+			return id;
+		Image below = textures[under];
+		Image above = textures[over];
+		int width = below.getWidth(null);
+		int height = below.getHeight(null);
+		BufferedImage img;
+		if (GraphicsEnvironment.isHeadless())
+			img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		else
+			img = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+					.getDefaultConfiguration().createCompatibleImage(width, height);
+		Graphics2D g = img.createGraphics();
+		g.drawImage(below, 0, 0, null);
+		g.drawImage(above, 0, 0, null);
+		g.dispose();
+		
+		int count = textures.length;
+		textures = Arrays.copyOf(textures, count + 1);
+		textures[count] = img;
+		textureIds.put(key, count);
+		return count;
+	}
+	
+	/**
+	 * Texture préchargée, par identifiant.
+	 * @param id identifiant rendu par {@link #getTextureId(String)}
+	 * @return l'image
+	 */
+	public static Image getTexture(int id) {
+		return textures[id];
+	}
+	
+	/**
+	 * Décodage immédiat d'une image, convertie au format compatible avec
+	 * l'écran quand il y en a un.
+	 * @param f fichier image
+	 * @return l'image décodée
+	 */
+	private static BufferedImage decode(File f) {
+		BufferedImage src;
+		try {
+			src = ImageIO.read(f);
+		}
+		catch (IOException e) {
+			throw new RuntimeException("erreur de chargement d'image, \""+ f +"\" n'a pas pu être lue", e);
+		}
+		if (src == null)
+			throw new RuntimeException("erreur de chargement d'image, \""+ f +"\" n'est pas une image reconnue");
+		if (GraphicsEnvironment.isHeadless())
+			return src;
+		
+		GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+				.getDefaultScreenDevice().getDefaultConfiguration();
+		if (src.getColorModel().equals(gc.getColorModel()))
+			return src;
+		BufferedImage compatible = gc.createCompatibleImage(src.getWidth(), src.getHeight(), src.getTransparency());
+		Graphics2D g = compatible.createGraphics();
+		g.drawImage(src, 0, 0, null);
+		g.dispose();
+		return compatible;
+	}
+	
+	/**
+	 * Mémoire occupée par les pixels d'une image, en octets.
+	 */
+	private static long sizeOf(BufferedImage img) {
+		return (long) img.getWidth() * img.getHeight() * ((img.getColorModel().getPixelSize() + 7) / 8);
+	}
+	
 	public static Image getImage(String filename) throws FileNotFoundException {
 		Image img;
 		URL url;
+		// Les textures préchargées évitent l'accès au disque
+		synchronized (ImageManager.class) {
+			Integer id = textureIds.get(filename);
+			if (id != null)
+				return textures[id];
+		}
 		try {
 			if (GameFrame.logLevel >= 2)
 				System.out.println("getting image "+ filename);
@@ -42,7 +200,7 @@ public class ImageManager {
 			url = f.toURI().toURL();
 			img = map.get(url);
 			if (img == null) {
-				img = java.awt.Toolkit.getDefaultToolkit().createImage(filename);
+				img = decode(f);
 				map.put(url, img);
 			}
 		return img;
@@ -11,6 +11,9 @@ import java.util.*;
  * Il peut être composé de plusieurs images superposée. 
  * La dernière image ajoutée est la plus haute.
  * La visibilité de chaque image peut être modifiée.  
+ * Les modifications ne bloquent pas l'appelant : chacune publie un état
+ * figé du sprite ({@link Snapshot}) que le plateau affiche plus tard,
+ * depuis le thread d'affichage.
  * @author Julien Tesson
  */
 public class Sprite implements Iterable<Image> {
@@ -20,10 +23,12 @@ public class Sprite implements Iterable<Image> {
 	private BoardSprites board;
 	private int x = 0;
 	private int y = 0;
-	private int oldx = 0;
-	private int oldy = 0;
 	private boolean visible = true;
-	private boolean update = false;
+
+	// Dernier état publié, et dernier état affiché par le plateau
+	private volatile Snapshot published;
+	private volatile Snapshot drawn;
+	private volatile boolean deleted = false;
 
 	/** 
 	 * 	Construit un nouveau Sprite attaché à un plateau.
@@ -34,7 +39,6 @@ public class Sprite implements Iterable<Image> {
 	public Sprite(BoardSprites b) { 
 
 		board = b;
-		b.addSprite(this);
 		images = new ArrayList<Image>();
 		visibleImages = new ArrayList<Boolean>();
 		visible = false;
@@ -63,44 +67,62 @@ public class Sprite implements Iterable<Image> {
 	
 	
 	/**
-	 * Mise à jour de l'affichage de l'image.
+	 * Publication de l'état courant du sprite, affiché au prochain passage
+	 * du thread d'affichage. Ne bloque pas.
 	 */
 	private void update() {
 		if (GameFrame.logLevel >= 1)
 			System.out.println("requesting sprite update");
-		update = false;
-		try {
-			java.awt.EventQueue.invokeAndWait(
-				new Runnable() {
-					@Override
-					public void run() {
-						if (GameFrame.logLevel >= 1) {
-							System.out.println("updating sprite");
-						}
-						board.update(Sprite.this, true);
-					}
-				});
-		}
-		catch (Exception e) {
-			e.printStackTrace();
-		}
+		ArrayList<Image> shown = new ArrayList<Image>(images.size());
+		for (Image img : this)
+			shown.add(img);
+		Snapshot s = new Snapshot(this, x, y, visible, shown.toArray(new Image[shown.size()]));
+		published = s;
+		board.submit(s);
 	}
 	
 	/**
-	 * Methode de notification de la mise à jour.  
+	 * Methode de notification de la mise à jour, appelée par le plateau
+	 * depuis le thread d'affichage.
+	 * @param s l'état qui vient d'être affiché
 	 */
-	void updated() {
-		update = true;
-		oldx = x;
-		oldy = y;
-//		System.out.println("sprite updated");
+	void updated(Snapshot s) {
+		drawn = s;
 	}
 	
 	/**
 	 * @return true si l'affichage du sprite est à jour.
 	 */
 	public boolean upToDate() {
-		return update;
+		return drawn == published;
+	}
+
+	/**
+	 * @return le dernier état publié du sprite
+	 */
+	Snapshot getPublished() {
+		return published;
+	}
+
+	/**
+	 * @return le dernier état affiché du sprite, null s'il ne l'a jamais été
+	 */
+	Snapshot getDrawn() {
+		return drawn;
+	}
+
+	/**
+	 * @return true si le sprite a été supprimé du plateau
+	 */
+	boolean isDeleted() {
+		return deleted;
+	}
+
+	/**
+	 * Marque le sprite comme supprimé.
+	 */
+	void markDeleted() {
+		deleted = true;
 	}
 		
 	
@@ -112,23 +134,12 @@ public class Sprite implements Iterable<Image> {
 	 */
 	public int addImage (String filename) {
 		try {
-			final Image img = ImageManager.getImage(filename);
-			try {
-				java.awt.EventQueue.invokeAndWait(
-					new Runnable() {
-						@Override
-						public void run() {
-							images.add(img);	
-							visibleImages.add(Boolean.TRUE);	
-							assert (images.size() == visibleImages.size()) : "Sprite : probleme de correlation entre les visibilités et les images";
-						}
-					});
-			}
-			catch (Exception e) {
-				e.printStackTrace();
-			}
+			Image img = ImageManager.getImage(filename);
+			images.add(img);
+			visibleImages.add(Boolean.TRUE);
+			assert (images.size() == visibleImages.size()) : "Sprite : probleme de correlation entre les visibilités et les images";
 			update();
-			return images.indexOf(img);
+			return images.size() - 1;
 		}
 		catch (FileNotFoundException e) {
 			throw new RuntimeException(e);
@@ -141,21 +152,10 @@ public class Sprite implements Iterable<Image> {
 	 */
 	public void showImage(final int i) {
 		assert (i >= 0 && i < images.size());
-		try {
-			java.awt.EventQueue.invokeAndWait(
-				new Runnable() {
-					@Override
-					public void run() {
-						if (!visibleImages.get(i).booleanValue()) {
-							visibleImages.set(i, Boolean.TRUE);
-						}
-					}
-				});
+		if (!visibleImages.get(i).booleanValue()) {
+			visibleImages.set(i, Boolean.TRUE);
+			this.update();
 		}
-		catch (Exception e) {
-			e.printStackTrace();
-		}
-		this.update();
 	}
 	
 	
@@ -165,21 +165,10 @@ public class Sprite implements Iterable<Image> {
 	 */	
 	public void hideImage(final int i) {
 		assert (i >= 0 && i < images.size());
-		try {
-			java.awt.EventQueue.invokeAndWait(
-				new Runnable() {
-					@Override
-					public void run() {
-						if (visibleImages.get(i).booleanValue()) {
-							visibleImages.set(i, Boolean.FALSE);	
-						}
-					}
-				});
+		if (visibleImages.get(i).booleanValue()) {
+			visibleImages.set(i, Boolean.FALSE);
+			this.update();
 		}
-		catch (Exception e) {
-			e.printStackTrace();
-		}
-		this.update();
 	}
 
 	/**
@@ -226,17 +215,6 @@ public class Sprite implements Iterable<Image> {
 	 */
 	public int getY() {return y;}
 	
-
-	/**
-	 * @return l'abscisse du Sprite avant le dernier déplacement.
-	 */
-	int getOldX() {return oldx;}
-
-	/**
-	 * @return l'ordonnée du Sprite avant le dernier déplacement.
-	 */
-	int getOldY() {return oldy;}
-
 	/* (non-Javadoc)
 	 * @see java.lang.Object#clone()
 	 */
@@ -245,6 +223,27 @@ public class Sprite implements Iterable<Image> {
 		return new Sprite(this);
 	}
 
+	/**
+	 * État figé d'un sprite : position, visibilité et images visibles, de
+	 * bas en haut. Il n'est jamais modifié après sa création et peut donc
+	 * passer d'un thread à l'autre sans verrou.
+	 */
+	static final class Snapshot {
+		final Sprite sprite;
+		final int x;
+		final int y;
+		final boolean visible;
+		final Image[] images;
+
+		Snapshot(Sprite sprite, int x, int y, boolean visible, Image[] images) {
+			this.sprite = sprite;
+			this.x = x;
+			this.y = y;
+			this.visible = visible;
+			this.images = images;
+		}
+	}
+
 	class imageIterator implements Iterator<Image> {
 		boolean end = false;
 		Image next = null;
@@ -298,8 +297,7 @@ public class Sprite implements Iterable<Image> {
 	}
 	
 	/**
-	 * Iterateur permettant le parcours des images du Sprite
-	 * Utilisé en interne pour l'affichage du sprite
+	 * Iterateur permettant le parcours des images visibles du Sprite
 	 * @see java.lang.Iterable#iterator()
 	 */
 	public Iterator<Image> iterator() {
@@ -0,0 +1,79 @@
+package rpggraph;
+
+import base.Level;
+
+/**
+ * Window of the level shown on the board display.
+ * The camera follows the hero, keeping it centered while staying inside
+ * the level, and converts between level and screen coordinates.
+ */
+public class Camera {
+
+    private final int viewWidth;
+    private final int viewHeight;
+    private int originX;
+    private int originY;
+
+    public Camera(int viewWidth, int viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+    }
+
+    /**
+     * Center the view on a tile, clamped so it does not show past the
+     * edges of the level. A level smaller than the view is shown from its
+     * top-left corner.
+     */
+    public void follow(Level level, int x, int y) {
+        originX = clamp(x - viewWidth / 2, level.getWidth() - viewWidth);
+        originY = clamp(y - viewHeight / 2, level.getHeight() - viewHeight);
+    }
+
+    private static int clamp(int origin, int maxOrigin) {
+        if (origin > maxOrigin) {
+            origin = maxOrigin;
+        }
+        return Math.max(origin, 0);
+    }
+
+    /**
+     * Check if a level tile is inside the view.
+     */
+    public boolean isVisible(int x, int y) {
+        return x >= originX && x < originX + viewWidth
+            && y >= originY && y < originY + viewHeight;
+    }
+
+    /**
+     * Level column shown at a screen column.
+     */
+    public int toWorldX(int screenX) {
+        return originX + screenX;
+    }
+
+    /**
+     * Level row shown at a screen row.
+     */
+    public int toWorldY(int screenY) {
+        return originY + screenY;
+    }
+
+    /**
+     * Screen column of a level column.
+     */
+    public int toScreenX(int x) {
+        return x - originX;
+    }
+
+    /**
+     * Screen row of a level row.
+     */
+    public int toScreenY(int y) {
+        return y - originY;
+    }
+
+    public int getViewWidth() { return viewWidth; }
+    public int getViewHeight() { return viewHeight; }
+    public int getOriginX() { return originX; }
+    public int getOriginY() { return originY; }
+}
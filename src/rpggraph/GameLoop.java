@@ -0,0 +1,165 @@
+package rpggraph;
+
+import ihm.FrontEnd;
+import ihm.controller.Evenement;
+
+/**
+ * Fixed-timestep game loop.
+ * The simulation advances in ticks of constant length, whatever the frame
+ * rate; rendering happens at its own rate and is given how far the game is
+ * between the last tick and the next one. Input is polled with a timeout
+ * until the next tick or frame is due, so the loop never blocks on the
+ * player.
+ */
+public class GameLoop {
+
+    /**
+     * What the loop drives.
+     */
+    public interface Listener {
+        /**
+         * Handle one input event, as soon as it arrives.
+         */
+        void handleEvent(Evenement event);
+
+        /**
+         * Advance the simulation by one tick.
+         */
+        void tick();
+
+        /**
+         * Draw the game.
+         * @param alpha fraction of a tick elapsed since the last one, in [0, 1),
+         *              to interpolate anything moving between ticks
+         */
+        void render(double alpha);
+    }
+
+    // After a long stall (e.g. a modal dialog) at most this many ticks are
+    // caught up; the rest of the backlog is dropped
+    private static final int MAX_TICKS_PER_FRAME = 5;
+
+    private final FrontEnd frontEnd;
+    private final Listener listener;
+    private final long tickNanos;
+    private final long frameNanos;
+    private volatile boolean running;
+
+    // Metrics
+    private long tickCount;
+    private long tickTotalNanos;
+    private long tickMaxNanos;
+    private long frameCount;
+    private long frameTotalNanos;
+    private long frameMaxNanos;
+    private long droppedTicks;
+
+    public GameLoop(FrontEnd frontEnd, long tickMillis, long frameMillis, Listener listener) {
+        if (tickMillis <= 0 || frameMillis <= 0) {
+            throw new IllegalArgumentException("Invalid loop timing: tick " + tickMillis
+                    + " ms, frame " + frameMillis + " ms");
+        }
+        this.frontEnd = frontEnd;
+        this.listener = listener;
+        this.tickNanos = tickMillis * 1_000_000L;
+        this.frameNanos = frameMillis * 1_000_000L;
+    }
+
+    /**
+     * Run the loop on the calling thread until {@link #stop()} is called.
+     */
+    public void run() {
+        running = true;
+        long previous = System.nanoTime();
+        long lag = 0;
+        long nextFrame = previous;
+
+        while (running) {
+            long now = System.nanoTime();
+            lag += now - previous;
+            previous = now;
+
+            int ticks = 0;
+            while (lag >= tickNanos && running) {
+                if (ticks == MAX_TICKS_PER_FRAME) {
+                    droppedTicks += lag / tickNanos;
+                    lag %= tickNanos;
+                    break;
+                }
+                long start = System.nanoTime();
+                listener.tick();
+                recordTick(System.nanoTime() - start);
+                lag -= tickNanos;
+                ticks++;
+            }
+            if (!running) {
+                break;
+            }
+
+            now = System.nanoTime();
+            if (now >= nextFrame) {
+                long start = now;
+                listener.render((double) lag / tickNanos);
+                recordFrame(System.nanoTime() - start);
+                // Skip frames rather than render several in a row when late
+                nextFrame = Math.max(nextFrame + frameNanos, now);
+            }
+
+            // Poll input until the next tick or frame is due; at least 1 ms,
+            // a timeout of 0 would wait forever
+            long nextTick = previous + tickNanos - lag;
+            long wait = Math.min(nextTick, nextFrame) - System.nanoTime();
+            Evenement event = frontEnd.lireEvenement(Math.max(1, wait / 1_000_000));
+            if (event != null && running) {
+                listener.handleEvent(event);
+            }
+        }
+    }
+
+    /**
+     * Stop the loop after the current step.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void recordTick(long nanos) {
+        tickCount++;
+        tickTotalNanos += nanos;
+        tickMaxNanos = Math.max(tickMaxNanos, nanos);
+    }
+
+    private void recordFrame(long nanos) {
+        frameCount++;
+        frameTotalNanos += nanos;
+        frameMaxNanos = Math.max(frameMaxNanos, nanos);
+    }
+
+    public long getTickCount() { return tickCount; }
+    public long getFrameCount() { return frameCount; }
+    public long getDroppedTicks() { return droppedTicks; }
+    public long getMaxTickNanos() { return tickMaxNanos; }
+    public long getMaxFrameNanos() { return frameMaxNanos; }
+
+    public long getAverageTickNanos() {
+        return tickCount == 0 ? 0 : tickTotalNanos / tickCount;
+    }
+
+    public long getAverageFrameNanos() {
+        return frameCount == 0 ? 0 : frameTotalNanos / frameCount;
+    }
+
+    /**
+     * One-line summary of the metrics, times in microseconds.
+     */
+    public String getMetricsSummary() {
+        return tickCount + " ticks (avg " + getAverageTickNanos() / 1000 + " us, max "
+                + tickMaxNanos / 1000 + " us, " + droppedTicks + " dropped), "
+                + frameCount + " frames (avg " + getAverageFrameNanos() / 1000 + " us, max "
+                + frameMaxNanos / 1000 + " us)";
+    }
+}
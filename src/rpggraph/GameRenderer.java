@@ -4,46 +4,98 @@ import base.*;
 import ihm.FrontEnd;
 
 /**
- * Handles rendering the game board to the FrontEnd display
+ * Handles rendering the game board to the FrontEnd display.
+ * Images are preloaded as textures and referred to by id. The texture shown
+ * in each cell of the view is remembered, so a render only sends the cells
+ * whose texture changed since the previous one.
  */
 public class GameRenderer {
     
     private final FrontEnd frontEnd;
+    private final Camera camera;
     private final String imageDir;
     
-    public GameRenderer(FrontEnd frontEnd) {
+    // Texture ids, resolved once; all but the floor are drawn on the floor
+    private final int floorTexture;
+    private final int wallTexture;
+    private final int chestTexture;
+    private final int openChestTexture;
+    private final int exitTexture;
+    private final int[] mobTextures;      // by Mob.MobType ordinal
+    private final int[][] heroTextures;   // by Hero.HeroType and Direction ordinals
+    
+    // Texture id shown in each view cell after the last render, -1 if unknown
+    private final int[] lastFrame;
+    private Level lastLevel;
+    
+    public GameRenderer(FrontEnd frontEnd, Camera camera) {
         this.frontEnd = frontEnd;
+        this.camera = camera;
         this.imageDir = Constants.IMAGE_DIR;
+        this.lastFrame = new int[camera.getViewWidth() * camera.getViewHeight()];
+        invalidate();
+        
+        frontEnd.loadTextures(imageDir);
+        this.floorTexture = frontEnd.getTextureId("Sol.png");
+        this.wallTexture = onFloor("Mur.png");
+        this.chestTexture = onFloor("Coffre.png");
+        this.openChestTexture = onFloor("coffre-ouvert.png");
+        this.exitTexture = onFloor("BoulePortail.png");
+        this.mobTextures = new int[Mob.MobType.values().length];
+        for (Mob.MobType type : Mob.MobType.values()) {
+            mobTextures[type.ordinal()] = onFloor(getMobImage(type));
+        }
+        this.heroTextures = new int[Hero.HeroType.values().length][Direction.values().length];
+        for (Hero.HeroType type : Hero.HeroType.values()) {
+            for (Direction direction : Direction.values()) {
+                heroTextures[type.ordinal()][direction.ordinal()] = onFloor(getHeroImage(type, direction));
+            }
+        }
     }
     
     /**
-     * Render the entire game state.
+     * Texture of an image drawn on the floor. Sprites have transparent
+     * pixels, and a cell shows a single texture, so the floor is composed
+     * under them once here.
+     */
+    private int onFloor(String image) {
+        return frontEnd.getCompositeTextureId(floorTexture, frontEnd.getTextureId(image));
+    }
+    
+    /**
+     * Forget what is on screen, so the next render redraws every cell.
+     * Call after something else drew over the board (e.g. the inventory).
+     */
+    public void invalidate() {
+        java.util.Arrays.fill(lastFrame, -1);
+    }
+    
+    /**
+     * Render the part of the game state seen by the camera.
+     * The camera is centered on the player first; only the tiles of the
+     * view are considered, whatever the size of the level, and only the
+     * changed ones are sent. A new floor redraws everything.
      */
     public void render(GameManager gameManager) {
         Level level = gameManager.getCurrentLevel();
         Level.Position playerPos = gameManager.getPlayerPosition();
         Hero hero = gameManager.getHero();
         
-        // Render floor tiles first (no repaint yet)
-        renderFloor(false);
-        
-        // Render walls (no repaint yet)
-        renderWalls(level, false);
-        
-        // Render chests (no repaint yet)
-        renderChests(level, false);
-        
-        // Render mobs (no repaint yet)
-        renderMobs(level, false);
-        
-        // Render exit (no repaint yet)
-        renderExit(level, false);
-        
-        // Render player (on top, still no repaint)
-        renderPlayer(playerPos, hero, false);
+        if (level != lastLevel) {
+            invalidate();
+            lastLevel = level;
+        }
+        camera.follow(level, playerPos.getX(), playerPos.getY());
         
-        // Force single update of the display at the end
-        frontEnd.updateDisplay();
+        // Collect changed cells, player on top, and hand them to the
+        // display as one batch with a single repaint
+        int playerCell = camera.toScreenY(playerPos.getY()) * camera.getViewWidth()
+                + camera.toScreenX(playerPos.getX());
+        int playerTexture = heroTextures[hero.getType().ordinal()]
+                [convertHeroDirection(hero.getFacingDirection()).ordinal()];
+        frontEnd.beginFrame();
+        renderTiles(level, playerCell, playerTexture);
+        frontEnd.commitFrame();
     }
     
     /**
@@ -59,67 +111,44 @@ public class GameRenderer {
     }
     
     /**
-     * Render floor tiles.
+     * Send the view cells whose texture differs from the last render.
      */
-    private void renderFloor(boolean repaint) {
-        for (int y = 1; y < Constants.BOARD_HEIGHT - 1; y++) {
-            for (int x = 1; x < Constants.BOARD_WIDTH - 1; x++) {
-                frontEnd.setBackground(x, y, imageDir + "Sol.png");
+    private void renderTiles(Level level, int playerCell, int playerTexture) {
+        int cell = 0;
+        for (int sy = 0; sy < camera.getViewHeight(); sy++) {
+            for (int sx = 0; sx < camera.getViewWidth(); sx++, cell++) {
+                int texture = cell == playerCell
+                        ? playerTexture
+                        : getTileTexture(level, camera.toWorldX(sx), camera.toWorldY(sy));
+                if (texture != lastFrame[cell]) {
+                    frontEnd.setBackground(sx, sy, texture);
+                    lastFrame[cell] = texture;
+                }
             }
         }
     }
     
     /**
-     * Render walls.
+     * Get the texture of a level tile. Cells past the edge of a level
+     * smaller than the view are drawn as walls.
      */
-    private void renderWalls(Level level, boolean repaint) {
-        for (Level.Position pos : level.getWalls()) {
-            frontEnd.setBackground(pos.getX(), pos.getY(), imageDir + "Mur.png");
-        }
-    }
-    
-    /**
-     * Render chests.
-     */
-    private void renderChests(Level level, boolean repaint) {
-        for (Level.Position pos : level.getChests().keySet()) {
-            Level.Chest chest = level.getChest(pos.getX(), pos.getY());
-            String image = chest.isOpened() ? "coffre-ouvert.png" : "Coffre.png";
-            frontEnd.setBackground(pos.getX(), pos.getY(), imageDir + image);
-        }
-    }
-    
-    /**
-     * Render mobs.
-     */
-    private void renderMobs(Level level, boolean repaint) {
-        for (Level.Position pos : level.getMobs().keySet()) {
-            Mob mob = level.getMob(pos.getX(), pos.getY());
-            if (mob != null && mob.isAlive()) {
-                String image = getMobImage(mob);
-                frontEnd.setBackground(pos.getX(), pos.getY(), imageDir + image);
-            }
+    private int getTileTexture(Level level, int x, int y) {
+        switch (level.tileAt(x, y)) {
+            case Level.TILE_EXIT:
+                return exitTexture;
+            case Level.TILE_MOB:
+                Mob mob = level.getMob(x, y);
+                return mob.isAlive() ? mobTextures[mob.getType().ordinal()] : floorTexture;
+            case Level.TILE_CHEST:
+                return level.getChest(x, y).isOpened() ? openChestTexture : chestTexture;
+            case Level.TILE_WALL:
+            case Level.TILE_OUTSIDE:
+                return wallTexture;
+            default:
+                return floorTexture;
         }
     }
     
-    /**
-     * Render the exit portal.
-     */
-    private void renderExit(Level level, boolean repaint) {
-        Level.Position exit = level.getExitPosition();
-        frontEnd.setBackground(exit.getX(), exit.getY(), imageDir + "BoulePortail.png");
-    }
-    
-    /**
-     * Render the player character.
-     */
-    private void renderPlayer(Level.Position pos, Hero hero, boolean repaint) {
-        // Convert Hero.Direction to GameRenderer.Direction
-        Direction direction = convertHeroDirection(hero.getFacingDirection());
-        String image = getHeroImage(hero, direction);
-        frontEnd.setBackground(pos.getX(), pos.getY(), imageDir + image);
-    }
-    
     /**
      * Convert Hero.Direction to GameRenderer.Direction.
      */
@@ -141,8 +170,8 @@ public class GameRenderer {
     /**
      * Get the appropriate mob image.
      */
-    private String getMobImage(Mob mob) {
-        switch (mob.getType()) {
+    private String getMobImage(Mob.MobType type) {
+        switch (type) {
             case SMALL:
                 return "Mob1F.png";
             case LARGE:
@@ -157,9 +186,9 @@ public class GameRenderer {
     /**
      * Get the appropriate hero image based on type and direction.
      */
-    private String getHeroImage(Hero hero, Direction direction) {
+    private String getHeroImage(Hero.HeroType type, Direction direction) {
         String heroType;
-        switch (hero.getType()) {
+        switch (type) {
             case WARRIOR:
                 heroType = "Guerrier";
                 break;
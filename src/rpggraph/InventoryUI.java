@@ -25,6 +25,9 @@ public class InventoryUI {
         Hero hero = gameState.getHero();
         Inventaire inventory = gameState.getInventory();
         
+        // Send every board cell of the inventory as one batch
+        frontEnd.beginFrame();
+        
         // Display hero stats panel
         displayHeroStats(hero, gameState.getPlayerName());
         
@@ -37,8 +40,8 @@ public class InventoryUI {
         // Display selected item details (if any)
         displayItemDetails(null); // Initially no item selected
         
-        // Force display update to ensure all changes are rendered
-        frontEnd.updateDisplay();
+        // Hand the board cells to the display with a single repaint
+        frontEnd.commitFrame();
     }
     
     /**
@@ -9,18 +9,38 @@ import ihm.controller.Evenement;
  */
 public class RPGGame {
     
+    // Length of a simulation tick, and minimum delay between two frames
+    private static final long TICK_MS = 20;
+    private static final long FRAME_MS = 16;
+    
+    // Ticks between two steps when walking a clicked path (80 ms)
+    private static final int PATH_STEP_TICKS = 4;
+    
     private GameManager gameManager;
     private FrontEnd frontEnd;
+    private Camera camera;
     private GameRenderer renderer;
     private InventoryUI inventoryUI;
     private SidePanel sidePanel;
     private MessageBar messageBar;
     private boolean showingInventory;
+    private GameLoop loop;
+    private boolean dirty;
+    private int ticksUntilPathStep = PATH_STEP_TICKS;
     
     public RPGGame(GameState gameState) {
-        this.gameManager = new GameManager(gameState);
+        this(new GameManager(gameState));
+    }
+    
+    /**
+     * Start a game on an existing manager, e.g. one resumed from the journal.
+     */
+    public RPGGame(GameManager gameManager) {
+        this.gameManager = gameManager;
+        GameState gameState = gameManager.getGameState();
         this.frontEnd = new FrontEnd(Constants.BOARD_WIDTH, Constants.BOARD_HEIGHT);
-        this.renderer = new GameRenderer(frontEnd);
+        this.camera = new Camera(Constants.BOARD_WIDTH, Constants.BOARD_HEIGHT);
+        this.renderer = new GameRenderer(frontEnd, camera);
         this.inventoryUI = new InventoryUI(frontEnd);
         this.sidePanel = new SidePanel(frontEnd);
         this.messageBar = new MessageBar(frontEnd);
@@ -94,7 +114,8 @@ public class RPGGame {
     }
     
     /**
-     * Main game loop.
+     * Main game loop: fixed simulation ticks, rendering at the display rate,
+     * input handled as it arrives.
      */
     public void run() {
         // Wait a bit for the window to be fully initialized
@@ -109,33 +130,70 @@ public class RPGGame {
         renderer.render(gameManager);
         sidePanel.update(gameManager);
         
-        // Game loop
-        while (!gameManager.isGameOver() && !gameManager.isGameWon()) {
-            // Wait for player input
-            Evenement event = frontEnd.lireEvenement();
-            
-            if (event.isMouseEvent()) {
-                handleMouseEvent(event);
-            } else if (event.isKeyboardEvent()) {
-                handleKeyboardEvent(event);
-            }
-            
-            // Re-render
-            if (!showingInventory) {
-                renderer.render(gameManager);
-                sidePanel.update(gameManager);
+        loop = new GameLoop(frontEnd, TICK_MS, FRAME_MS, new GameLoop.Listener() {
+            @Override
+            public void handleEvent(Evenement event) {
+                if (event.isMouseEvent()) {
+                    handleMouseEvent(event);
+                } else if (event.isKeyboardEvent()) {
+                    handleKeyboardEvent(event);
+                }
+                dirty = true;
+                checkGameEnd();
             }
             
-            // Check game state
-            if (gameManager.isGameOver()) {
-                gameOver();
-                break;
+            @Override
+            public void tick() {
+                RPGGame.this.tick();
+                checkGameEnd();
             }
             
-            if (gameManager.isGameWon()) {
-                gameWon();
-                break;
+            @Override
+            public void render(double alpha) {
+                // The board moves tile by tile: nothing to interpolate yet
+                if (dirty && !showingInventory) {
+                    renderer.render(gameManager);
+                    sidePanel.update(gameManager);
+                    dirty = false;
+                }
             }
+        });
+        if (gameManager.isGameOver() || gameManager.isGameWon()) {
+            // A resumed game can be over already: end it the usual way
+            checkGameEnd();
+        } else {
+            loop.run();
+        }
+        
+        System.out.println("Game loop: " + loop.getMetricsSummary());
+        gameManager.shutdown();
+    }
+    
+    /**
+     * Advance the game by one tick: walk the clicked path at its own pace.
+     */
+    private void tick() {
+        if (!gameManager.hasPendingPath()) {
+            ticksUntilPathStep = PATH_STEP_TICKS;
+            return;
+        }
+        if (--ticksUntilPathStep <= 0) {
+            followPath();
+            ticksUntilPathStep = PATH_STEP_TICKS;
+            dirty = true;
+        }
+    }
+    
+    /**
+     * End the game loop once the game is lost or won.
+     */
+    private void checkGameEnd() {
+        if (gameManager.isGameOver()) {
+            loop.stop();
+            gameOver();
+        } else if (gameManager.isGameWon()) {
+            loop.stop();
+            gameWon();
         }
     }
     
@@ -152,9 +210,27 @@ public class RPGGame {
             if (item != null) {
                 handleItemClick(item);
             }
+        } else if (gameManager.getCombatManager().isCombatActive()) {
+            messageBar.setMessage("Déplacement impossible pendant le combat !");
+        } else if (gameManager.planPathTo(camera.toWorldX(x), camera.toWorldY(y))) {
+            // The game loop walks the path one step at a time
+            messageBar.setMessage("Déplacement vers (" + camera.toWorldX(x) + ", " + camera.toWorldY(y) + ")...");
         } else {
-            // Handle game board clicks
-            System.out.println("Clicked position: (" + x + ", " + y + ")");
+            messageBar.setMessage("Impossible d'atteindre cette case !");
+        }
+    }
+    
+    /**
+     * Plan a walk to the nearest target of a kind; the game loop walks it
+     * one step at a time, like a clicked path.
+     */
+    private void walkToward(NavigationField.Target target, String name) {
+        if (gameManager.getCombatManager().isCombatActive()) {
+            messageBar.setMessage("Déplacement impossible pendant le combat !");
+        } else if (gameManager.planPathToward(target)) {
+            messageBar.setMessage("Déplacement vers " + name + "...");
+        } else {
+            messageBar.setMessage("Impossible d'atteindre " + name + " !");
         }
     }
     
@@ -165,6 +241,9 @@ public class RPGGame {
         char key = event.getKey();
         int keyCode = event.getKeyCode();
         
+        // Any key interrupts a clicked path
+        gameManager.cancelPath();
+        
         // Check for arrow keys first (using key codes)
         if (keyCode == java.awt.event.KeyEvent.VK_UP) {
             movePlayer(GameManager.Direction.UP);
@@ -210,6 +289,17 @@ public class RPGGame {
                 toggleInventory();
                 break;
                 
+            // Walk to the nearest exit, chest or boss
+            case 'e': // E for exit
+                walkToward(NavigationField.Target.EXIT, "la sortie");
+                break;
+            case 'o': // O for coffre
+                walkToward(NavigationField.Target.CHEST, "le coffre le plus proche");
+                break;
+            case 'b': // B for boss
+                walkToward(NavigationField.Target.BOSS, "le boss");
+                break;
+                
             // Attribute stat points
             case 'c': // C for character stats
                 openStatPointDialog();
@@ -223,7 +313,7 @@ public class RPGGame {
             // Quit
             case 'x':
                 if (confirmQuit()) {
-                    System.exit(0);
+                    returnToMainMenu();
                 }
                 break;
                 
@@ -255,6 +345,18 @@ public class RPGGame {
         }
     }
     
+    /**
+     * Walk one step of the clicked path.
+     */
+    private void followPath() {
+        GameManager.MoveResult result = gameManager.followPath();
+        messageBar.setMessage(result.getMessage());
+        
+        if (gameManager.getCombatManager().isCombatActive()) {
+            messageBar.setMessage("Le combat commence ! Appuyez sur ESPACE pour attaquer.");
+        }
+    }
+    
     /**
      * Player attacks in combat.
      */
@@ -308,6 +410,8 @@ public class RPGGame {
             inventoryUI.displayInventory(gameManager.getGameState());
             messageBar.setMessage("Inventaire ouvert. Appuyez sur I pour fermer.");
         } else {
+            // The inventory drew over the board: redraw every cell
+            renderer.invalidate();
             renderer.render(gameManager);
             sidePanel.update(gameManager);
             messageBar.setMessage("Inventaire fermé.");
@@ -355,17 +459,17 @@ public class RPGGame {
         
         // Perform action based on user choice
         if (choice.equals("Déséquiper")) {
-            gameManager.getInventory().unequipItem(item);
+            gameManager.unequipItem(item);
             action = "Déséquipé " + item.getName();
         } else if (choice.equals("Utiliser")) {
-            boolean success = gameManager.getInventory().useItem(item);
+            boolean success = gameManager.useItem(item);
             if (success) {
                 action = "Utilisé " + item.getName();
             } else {
                 action = "Impossible d'utiliser " + item.getName();
             }
         } else if (choice.equals("Equiper")) {
-            gameManager.getInventory().equipItem(item);
+            gameManager.equipItem(item);
             action = "Équipé " + item.getName();
         }
         
@@ -485,7 +589,7 @@ public class RPGGame {
                 break;
         }
         
-        boolean success = hero.spendStatPoints(statKey, amount);
+        boolean success = gameManager.spendStatPoints(statKey, amount);
         
         if (success) {
             javax.swing.JOptionPane.showMessageDialog(
@@ -536,8 +640,9 @@ public class RPGGame {
      * Save the game.
      */
     private void saveGame() {
-        System.out.println("Attempting to save game to: " + Constants.DEFAULT_SAVE_FILE);
-        boolean success = gameManager.saveGame(Constants.DEFAULT_SAVE_FILE);
+        String slotName = gameManager.getGameState().getPlayerName();
+        System.out.println("Attempting to save game to slot: " + slotName);
+        boolean success = gameManager.saveToSlot(slotName);
         if (success) {
             messageBar.setMessage("Jeu sauvegardé avec succès !");
             System.out.println("Save successful!");
@@ -546,7 +651,7 @@ public class RPGGame {
             javax.swing.JOptionPane.showMessageDialog(
                 null,
                 "Votre partie a été sauvegardée avec succès !\n" +
-                "Fichier : " + Constants.DEFAULT_SAVE_FILE,
+                "Emplacement : " + slotName,
                 "Sauvegarde réussie",
                 javax.swing.JOptionPane.INFORMATION_MESSAGE
             );
@@ -584,7 +689,7 @@ public class RPGGame {
         );
         
         if (choice == 0) { // Save and quit
-            boolean saved = gameManager.saveGame(Constants.DEFAULT_SAVE_FILE);
+            boolean saved = gameManager.saveToSlot(gameManager.getGameState().getPlayerName());
             if (saved) {
                 javax.swing.JOptionPane.showMessageDialog(
                     null,
@@ -666,6 +771,10 @@ public class RPGGame {
      * Return to main menu.
      */
     private void returnToMainMenu() {
+        // Write the pending autosave and close the journal first: the
+        // autosave thread is a daemon, System.exit would drop its work
+        gameManager.shutdown();
+        
         // Exit the application
         // In a full implementation, you could close the window and restart the menu
         // For now, just exit
@@ -721,10 +830,25 @@ public class RPGGame {
      */
     public static void main(String[] args) {
         // Show menu and wait for game start
-        GameMenu.showMenu(gameState -> {
-            RPGGame game = new RPGGame(gameState);
-            // Run the game on a separate thread to avoid blocking the EDT
-            new Thread(() -> game.run()).start();
+        GameMenu.showMenu(new GameMenu.GameMenuListener() {
+            @Override
+            public void onGameStart(GameState gameState) {
+                start(new RPGGame(gameState));
+            }
+            
+            @Override
+            public void onGameResume(GameManager gameManager) {
+                start(new RPGGame(gameManager));
+            }
         });
     }
+    
+    /**
+     * Run the game on a separate thread to avoid blocking the EDT.
+     */
+    private static void start(RPGGame game) {
+        // Closing the window exits the JVM directly: still write the saves
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> game.gameManager.shutdown(), "game-shutdown"));
+        new Thread(() -> game.run()).start();
+    }
 }
@@ -196,16 +196,11 @@ public class SidePanel {
         info.setDescriptionCategory("Level Info", "Palier " + state.getCurrentFloor());
         
         // Count remaining mobs
-        int mobCount = level.getMobs().size();
+        int mobCount = level.getMobCount();
         info.ajouterInt("Level Info", "Ennemis", mobCount);
         
         // Count remaining chests
-        int chestCount = 0;
-        for (Level.Chest chest : level.getChests().values()) {
-            if (!chest.isOpened()) {
-                chestCount++;
-            }
-        }
+        int chestCount = level.countUnopenedChests();
         info.ajouterInt("Level Info", "Coffres", chestCount);
         
         // Inventaire info